@@ -0,0 +1,76 @@
+package com.sky.benchmark;
+
+import com.sky.aspect.AutoFillAspect;
+import com.sky.context.BaseContext;
+import com.sky.entity.Category;
+import com.sky.mapper.CategoryMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 公共字段自动填充切面的开销
+ * 与运行时一样，mapper是不执行任何操作的JDK动态代理，再由切面代理包装；直接调用mapper作为对照
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AutoFillBenchmark {
+
+    private CategoryMapper categoryMapper;
+
+    private CategoryMapper autoFillCategoryMapper;
+
+    @Setup
+    public void setup() {
+        categoryMapper = (CategoryMapper) Proxy.newProxyInstance(CategoryMapper.class.getClassLoader(),
+                new Class<?>[]{CategoryMapper.class}, (proxy, method, args) -> null);
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(categoryMapper);
+        proxyFactory.addAspect(new AutoFillAspect());
+        autoFillCategoryMapper = proxyFactory.getProxy();
+
+        BaseContext.setCurrentId(1L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BaseContext.removeCurrentId();
+    }
+
+    @Benchmark
+    public Category insertWithoutAutoFill() {
+        Category category = new Category();
+        categoryMapper.insert(category);
+        return category;
+    }
+
+    @Benchmark
+    public Category insertWithAutoFill() {
+        Category category = new Category();
+        autoFillCategoryMapper.insert(category);
+        return category;
+    }
+
+    @Benchmark
+    public Category updateWithAutoFill() {
+        Category category = new Category();
+        autoFillCategoryMapper.update(category);
+        return category;
+    }
+}
@@ -0,0 +1,78 @@
+package com.sky.benchmark;
+
+import com.sky.dto.OrdersSubmitDTO;
+import com.sky.entity.OrderDetail;
+import com.sky.entity.Orders;
+import com.sky.entity.ShoppingCart;
+import com.sky.vo.OrderVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderServiceImpl中的属性复制：下单时提交数据转订单、订单转订单详情、再来一单时订单明细转购物车
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeanCopyBenchmark {
+
+    private OrdersSubmitDTO ordersSubmitDTO;
+
+    private Orders orders;
+
+    private OrderDetail orderDetail;
+
+    @Setup
+    public void setup() {
+        ordersSubmitDTO = new OrdersSubmitDTO();
+        ordersSubmitDTO.setAddressBookId(1L);
+        ordersSubmitDTO.setPayMethod(1);
+        ordersSubmitDTO.setRemark("少放辣");
+        ordersSubmitDTO.setEstimatedDeliveryTime(LocalDateTime.now().plusHours(1));
+        ordersSubmitDTO.setDeliveryStatus(1);
+        ordersSubmitDTO.setTablewareNumber(2);
+        ordersSubmitDTO.setTablewareStatus(0);
+        ordersSubmitDTO.setPackAmount(4);
+        ordersSubmitDTO.setAmount(new BigDecimal("126.00"));
+
+        orders = BenchmarkData.orders(1);
+        orderDetail = BenchmarkData.orderDetail(1, 1);
+    }
+
+    @Benchmark
+    public Orders submitDTOToOrders() {
+        Orders target = new Orders();
+        BeanUtils.copyProperties(ordersSubmitDTO, target);
+        return target;
+    }
+
+    @Benchmark
+    public OrderVO ordersToOrderVO() {
+        OrderVO target = new OrderVO();
+        BeanUtils.copyProperties(orders, target);
+        return target;
+    }
+
+    @Benchmark
+    public ShoppingCart orderDetailToShoppingCart() {
+        ShoppingCart target = new ShoppingCart();
+        BeanUtils.copyProperties(orderDetail, target, "id");
+        return target;
+    }
+}
@@ -0,0 +1,95 @@
+package com.sky.benchmark;
+
+import com.sky.entity.DishFlavor;
+import com.sky.entity.OrderDetail;
+import com.sky.entity.Orders;
+import com.sky.vo.DishVO;
+import com.sky.vo.OrderVO;
+import org.springframework.beans.BeanUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基准测试使用的模拟数据，字段取值接近真实数据
+ */
+public class BenchmarkData {
+
+    public static List<DishVO> dishVOList(int size) {
+        List<DishVO> dishVOList = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            List<DishFlavor> flavors = Arrays.asList(
+                    DishFlavor.builder().id(i * 2).dishId(i).name("辣度").value("[\"不辣\",\"微辣\",\"中辣\",\"重辣\"]").build(),
+                    DishFlavor.builder().id(i * 2 + 1).dishId(i).name("忌口").value("[\"不要葱\",\"不要蒜\",\"不要香菜\",\"不要辣\"]").build());
+            dishVOList.add(DishVO.builder()
+                    .id(i)
+                    .name("菜品" + i)
+                    .categoryId(i % 10)
+                    .price(new BigDecimal("38.00"))
+                    .image("https://sky-itcast.oss-cn-beijing.aliyuncs.com/" + i + ".png")
+                    .description("精选食材，现点现做")
+                    .status(1)
+                    .updateTime(LocalDateTime.now())
+                    .categoryName("热菜")
+                    .flavors(flavors)
+                    .build());
+        }
+        return dishVOList;
+    }
+
+    public static List<OrderVO> orderVOList(int size) {
+        List<OrderVO> orderVOList = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            OrderVO orderVO = new OrderVO();
+            BeanUtils.copyProperties(orders(i), orderVO);
+            List<OrderDetail> orderDetailList = new ArrayList<>();
+            for (long j = 1; j <= 3; j++) {
+                orderDetailList.add(orderDetail(i, j));
+            }
+            orderVO.setOrderDetailList(orderDetailList);
+            orderVO.setOrderDishes("菜品1*2;菜品2*1;菜品3*1;");
+            orderVOList.add(orderVO);
+        }
+        return orderVOList;
+    }
+
+    public static Orders orders(long id) {
+        return Orders.builder()
+                .id(id)
+                .number("17" + id)
+                .status(Orders.TO_BE_CONFIRMED)
+                .userId(id % 100)
+                .addressBookId(1L)
+                .orderTime(LocalDateTime.now())
+                .checkoutTime(LocalDateTime.now())
+                .payMethod(1)
+                .payStatus(Orders.PAID)
+                .amount(new BigDecimal("126.00"))
+                .remark("少放辣")
+                .phone("13800000000")
+                .address("北京市昌平区金燕龙办公楼")
+                .consignee("张三")
+                .estimatedDeliveryTime(LocalDateTime.now().plusHours(1))
+                .deliveryStatus(1)
+                .packAmount(4)
+                .tablewareNumber(2)
+                .tablewareStatus(0)
+                .build();
+    }
+
+    public static OrderDetail orderDetail(long orderId, long id) {
+        return OrderDetail.builder()
+                .id(orderId * 10 + id)
+                .name("菜品" + id)
+                .orderId(orderId)
+                .dishId(id)
+                .dishFlavor("微辣,不要葱")
+                .number(2)
+                .amount(new BigDecimal("38.00"))
+                .image("https://sky-itcast.oss-cn-beijing.aliyuncs.com/" + id + ".png")
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.sky.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.json.JacksonObjectMapper;
+import com.sky.vo.DishVO;
+import com.sky.vo.OrderVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 菜品列表、订单列表的响应序列化，使用项目的对象映射器
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonBenchmark {
+
+    private static final TypeReference<List<DishVO>> DISH_VO_LIST = new TypeReference<List<DishVO>>() {
+    };
+
+    @Param({"10", "100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<DishVO> dishVOList;
+
+    private List<OrderVO> orderVOList;
+
+    private byte[] dishVOBytes;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = new JacksonObjectMapper();
+        dishVOList = BenchmarkData.dishVOList(size);
+        orderVOList = BenchmarkData.orderVOList(size);
+        dishVOBytes = objectMapper.writeValueAsBytes(dishVOList);
+    }
+
+    @Benchmark
+    public byte[] writeDishVOList() throws Exception {
+        return objectMapper.writeValueAsBytes(dishVOList);
+    }
+
+    @Benchmark
+    public byte[] writeOrderVOList() throws Exception {
+        return objectMapper.writeValueAsBytes(orderVOList);
+    }
+
+    @Benchmark
+    public List<DishVO> readDishVOList() throws Exception {
+        return objectMapper.readValue(dishVOBytes, DISH_VO_LIST);
+    }
+}
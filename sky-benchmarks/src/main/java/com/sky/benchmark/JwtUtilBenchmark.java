@@ -0,0 +1,73 @@
+package com.sky.benchmark;
+
+import com.sky.constant.JwtClaimsConstant;
+import com.sky.interceptor.JwtTokenVerifier;
+import com.sky.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个请求经过拦截器时都要解析一次jwt
+ * verify为拦截器实际使用的方式，同一个令牌命中本地缓存
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET_KEY = "itcast";
+
+    private Map<String, Object> claims;
+
+    private String token;
+
+    private Key signingKey;
+
+    private JwtTokenVerifier jwtTokenVerifier;
+
+    @Setup
+    public void setup() {
+        claims = new HashMap<>();
+        claims.put(JwtClaimsConstant.EMP_ID, 1L);
+        token = JwtUtil.createJWT(SECRET_KEY, TimeUnit.HOURS.toMillis(2), claims);
+        signingKey = JwtUtil.getSigningKey(SECRET_KEY);
+        jwtTokenVerifier = new JwtTokenVerifier(SECRET_KEY, JwtClaimsConstant.EMP_ID, 10000, 300);
+    }
+
+    @Benchmark
+    public Claims parseJWT() {
+        return JwtUtil.parseJWT(SECRET_KEY, token);
+    }
+
+    @Benchmark
+    public Claims parseJWTWithKey() {
+        return JwtUtil.parseJWT(signingKey, token);
+    }
+
+    @Benchmark
+    public Long verify() {
+        return jwtTokenVerifier.verify(token);
+    }
+
+    @Benchmark
+    public String createJWT() {
+        return JwtUtil.createJWT(SECRET_KEY, TimeUnit.HOURS.toMillis(2), claims);
+    }
+}
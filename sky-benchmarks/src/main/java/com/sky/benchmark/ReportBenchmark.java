@@ -0,0 +1,102 @@
+package com.sky.benchmark;
+
+import com.sky.dto.OrderDailyStatisticsDTO;
+import com.sky.dto.UserDailyStatisticsDTO;
+import com.sky.mapper.OrderMapper;
+import com.sky.mapper.UserMapper;
+import com.sky.service.impl.ReportServiceImpl;
+import com.sky.vo.OrderReportVO;
+import com.sky.vo.TurnoverReportVO;
+import com.sky.vo.UserReportVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 报表按日期补齐数据的循环，mapper直接返回模拟的按日分组统计结果，只测量内存中的处理
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportBenchmark {
+
+    //统计的天数
+    @Param({"7", "30", "365"})
+    private int days;
+
+    private ReportServiceImpl reportService;
+
+    private LocalDate begin;
+
+    private LocalDate end;
+
+    @Setup
+    public void setup() {
+        end = LocalDate.now();
+        begin = end.minusDays(days - 1);
+
+        //隔天有数据，覆盖补0的分支
+        List<OrderDailyStatisticsDTO> orderStatisticsList = new ArrayList<>();
+        List<UserDailyStatisticsDTO> userStatisticsList = new ArrayList<>();
+        for (LocalDate date = begin; !date.isAfter(end); date = date.plusDays(2)) {
+            orderStatisticsList.add(new OrderDailyStatisticsDTO(date, 1024.5, 40, 36));
+            userStatisticsList.add(new UserDailyStatisticsDTO(date, 12));
+        }
+
+        OrderMapper orderMapper = (OrderMapper) Proxy.newProxyInstance(OrderMapper.class.getClassLoader(),
+                new Class<?>[]{OrderMapper.class},
+                (proxy, method, args) -> "statisticsByDate".equals(method.getName()) ? orderStatisticsList : null);
+        UserMapper userMapper = (UserMapper) Proxy.newProxyInstance(UserMapper.class.getClassLoader(),
+                new Class<?>[]{UserMapper.class},
+                (proxy, method, args) -> {
+                    if ("countByDate".equals(method.getName())) {
+                        return userStatisticsList;
+                    }
+                    return "countByMap".equals(method.getName()) ? 1000 : null;
+                });
+
+        reportService = new ReportServiceImpl();
+        setField("orderMapper", orderMapper);
+        setField("userMapper", userMapper);
+    }
+
+    @Benchmark
+    public TurnoverReportVO turnoverStatistics() {
+        return reportService.getTurnoverStatistics(begin, end);
+    }
+
+    @Benchmark
+    public UserReportVO userStatistics() {
+        return reportService.getUserStatistics(begin, end);
+    }
+
+    @Benchmark
+    public OrderReportVO ordersStatistics() {
+        return reportService.getOrdersStatistics(begin, end);
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(ReportServiceImpl.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, reportService, value);
+    }
+}
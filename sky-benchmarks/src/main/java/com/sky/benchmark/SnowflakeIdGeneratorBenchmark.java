@@ -0,0 +1,46 @@
+package com.sky.benchmark;
+
+import com.sky.utils.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单号生成，每毫秒最多4096个，达到上限后等待下一毫秒，吞吐量上限约为每秒400万
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnowflakeIdGeneratorBenchmark {
+
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+
+    @Setup
+    public void setup() {
+        snowflakeIdGenerator = new SnowflakeIdGenerator(0, 5000);
+    }
+
+    @Benchmark
+    public String nextIdStr() {
+        return snowflakeIdGenerator.nextIdStr();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String nextIdStrContended() {
+        return snowflakeIdGenerator.nextIdStr();
+    }
+}
@@ -0,0 +1,283 @@
+package com.sky.loadtest;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 端到端压测驱动
+ * 每个虚拟用户依次执行：登录、新增地址，然后循环执行 浏览分类、菜品、套餐，加入购物车，下单，支付，管理端接单；
+ * 结束后输出每个接口的请求数、失败数、吞吐量以及p50、p99耗时
+ * <p>
+ * 用法：java -cp sky-benchmarks/target/benchmarks.jar com.sky.loadtest.LoadTestDriver [服务地址] [用户数] [每个用户的下单次数]
+ * 服务端先以loadtest配置启动：mvn -pl sky-server -am -Ploadtest spring-boot:run -Dspring-boot.run.profiles=loadtest
+ */
+public class LoadTestDriver {
+
+    private static final String USER_TOKEN_NAME = "authentication";
+
+    private static final String ADMIN_TOKEN_NAME = "token";
+
+    //初始数据中的菜品分类id和套餐分类id
+    private static final int DISH_CATEGORY_COUNT = 4;
+    private static final long SETMEAL_CATEGORY_ID = 5;
+
+    private final String baseUrl;
+
+    //按接口统计的耗时，保持首次请求的顺序
+    private final Map<String, EndpointStats> statsMap = new LinkedHashMap<>();
+
+    private volatile String adminToken;
+
+    public LoadTestDriver(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        new LoadTestDriver(baseUrl).run(users, iterations);
+    }
+
+    public void run(int users, int iterations) throws InterruptedException {
+        JSONObject login = new JSONObject();
+        login.put("username", "admin");
+        login.put("password", "123456");
+        adminToken = request("管理端登录", "POST", "/admin/employee/login", null, null, login).getString("token");
+        request("设置营业状态", "PUT", "/admin/shop/1", ADMIN_TOKEN_NAME, adminToken, null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        long start = System.nanoTime();
+        for (int i = 0; i < users; i++) {
+            int userIndex = i;
+            executor.execute(() -> runUser(userIndex, iterations));
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.DAYS);
+        long elapsed = System.nanoTime() - start;
+
+        report(users, iterations, elapsed);
+    }
+
+    /**
+     * 一个虚拟用户的完整流程
+     *
+     * @param userIndex
+     * @param iterations
+     */
+    private void runUser(int userIndex, int iterations) {
+        String token;
+        Long addressBookId;
+        try {
+            JSONObject login = new JSONObject();
+            login.put("code", "user" + userIndex);
+            token = request("用户登录", "POST", "/user/user/login", null, null, login).getString("token");
+
+            JSONObject addressBook = new JSONObject();
+            addressBook.put("consignee", "压测用户" + userIndex);
+            addressBook.put("phone", "13800000000");
+            addressBook.put("sex", "1");
+            addressBook.put("detail", "压测地址");
+            request("新增地址", "POST", "/user/addressBook", USER_TOKEN_NAME, token, addressBook);
+            JSONArray addressBookList = requestArray("查询地址", "/user/addressBook/list", token);
+            addressBookId = addressBookList.getJSONObject(0).getLong("id");
+        } catch (Exception e) {
+            System.err.println("用户" + userIndex + "登录失败：" + e.getMessage());
+            return;
+        }
+
+        for (int i = 0; i < iterations; i++) {
+            try {
+                order(token, addressBookId, i);
+            } catch (Exception e) {
+                //单次下单失败时继续下一次，失败数已计入对应接口
+            }
+        }
+    }
+
+    /**
+     * 一次下单流程
+     */
+    private void order(String token, Long addressBookId, int iteration) {
+        requestArray("查询分类", "/user/category/list?type=1", token);
+        long categoryId = iteration % DISH_CATEGORY_COUNT + 1;
+        JSONArray dishList = requestArray("查询菜品", "/user/dish/list?categoryId=" + categoryId, token);
+        requestArray("查询套餐", "/user/setmeal/list?categoryId=" + SETMEAL_CATEGORY_ID, token);
+
+        for (int i = 0; i < 2 && i < dishList.size(); i++) {
+            JSONObject cart = new JSONObject();
+            cart.put("dishId", dishList.getJSONObject((iteration + i) % dishList.size()).getLong("id"));
+            cart.put("dishFlavor", "微辣");
+            request("加入购物车", "POST", "/user/shoppingCart/add", USER_TOKEN_NAME, token, cart);
+        }
+
+        JSONObject submit = new JSONObject();
+        submit.put("addressBookId", addressBookId);
+        submit.put("payMethod", 1);
+        submit.put("remark", "压测订单");
+        submit.put("deliveryStatus", 1);
+        submit.put("tablewareNumber", 0);
+        submit.put("tablewareStatus", 1);
+        JSONObject order = request("提交订单", "POST", "/user/order/submit", USER_TOKEN_NAME, token, submit);
+
+        JSONObject payment = new JSONObject();
+        payment.put("orderNumber", order.getString("orderNumber"));
+        payment.put("payMethod", 1);
+        request("订单支付", "PUT", "/user/order/payment", USER_TOKEN_NAME, token, payment);
+
+        JSONObject confirm = new JSONObject();
+        confirm.put("id", order.getLong("id"));
+        request("管理端接单", "PUT", "/admin/order/confirm", ADMIN_TOKEN_NAME, adminToken, confirm);
+    }
+
+    private JSONArray requestArray(String endpoint, String path, String token) {
+        return (JSONArray) send(endpoint, "GET", path, USER_TOKEN_NAME, token, null);
+    }
+
+    private JSONObject request(String endpoint, String method, String path, String tokenName, String token, JSONObject body) {
+        Object data = send(endpoint, method, path, tokenName, token, body);
+        return data instanceof JSONObject ? (JSONObject) data : new JSONObject();
+    }
+
+    /**
+     * 发送请求并记录耗时，响应码不是200或者业务编码不是1时记为失败
+     *
+     * @return 响应中的data
+     */
+    private Object send(String endpoint, String method, String path, String tokenName, String token, JSONObject body) {
+        EndpointStats stats = getStats(endpoint);
+        long start = System.nanoTime();
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(30000);
+            if (token != null) {
+                connection.setRequestProperty(tokenName, token);
+            }
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json;charset=UTF-8");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.toJSONString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            int status = connection.getResponseCode();
+            String response = read(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+            stats.record(System.nanoTime() - start);
+
+            if (status != 200) {
+                throw new IllegalStateException(endpoint + "响应码" + status);
+            }
+            JSONObject result = JSON.parseObject(response);
+            if (result.getIntValue("code") != 1) {
+                throw new IllegalStateException(endpoint + "失败：" + result.getString("msg"));
+            }
+            return result.get("data");
+        } catch (IOException e) {
+            stats.record(System.nanoTime() - start);
+            stats.errors.incrementAndGet();
+            throw new IllegalStateException(endpoint + "请求失败：" + e.getMessage(), e);
+        } catch (IllegalStateException e) {
+            stats.errors.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private String read(InputStream in) throws IOException {
+        if (in == null) {
+            return "";
+        }
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = input.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private EndpointStats getStats(String endpoint) {
+        synchronized (statsMap) {
+            return statsMap.computeIfAbsent(endpoint, key -> new EndpointStats());
+        }
+    }
+
+    private void report(int users, int iterations, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%n用户数：%d，每个用户下单次数：%d，总耗时：%.1f秒%n", users, iterations, seconds);
+        System.out.printf("%-12s %8s %6s %10s %10s %10s %10s%n", "接口", "请求数", "失败", "吞吐量/秒", "p50(ms)", "p99(ms)", "max(ms)");
+
+        synchronized (statsMap) {
+            statsMap.forEach((endpoint, stats) -> {
+                long[] latencies = stats.snapshot();
+                System.out.printf("%-12s %8d %6d %10.1f %10.2f %10.2f %10.2f%n",
+                        endpoint,
+                        latencies.length,
+                        stats.errors.get(),
+                        latencies.length / seconds,
+                        percentile(latencies, 0.50),
+                        percentile(latencies, 0.99),
+                        latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+            });
+        }
+    }
+
+    /**
+     * @param sorted 已排序的耗时(纳秒)
+     * @param q      0~1
+     * @return 耗时(毫秒)
+     */
+    private static double percentile(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    /**
+     * 单个接口的耗时记录
+     */
+    private static class EndpointStats {
+
+        private final List<Long> latencies = new ArrayList<>();
+
+        private final AtomicLong errors = new AtomicLong();
+
+        private synchronized void record(long nanos) {
+            latencies.add(nanos);
+        }
+
+        private synchronized long[] snapshot() {
+            long[] values = new long[latencies.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = latencies.get(i);
+            }
+            Arrays.sort(values);
+            return values;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.sky.benchmark.jmh_generated;
+public class AutoFillBenchmark_jmhType extends AutoFillBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.sky.benchmark.jmh_generated;
+public class BeanCopyBenchmark_jmhType extends BeanCopyBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.sky.benchmark.jmh_generated;
+public class JacksonBenchmark_jmhType extends JacksonBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.sky.benchmark.jmh_generated;
+public class JwtUtilBenchmark_jmhType extends JwtUtilBenchmark_jmhType_B3 {
+}
+
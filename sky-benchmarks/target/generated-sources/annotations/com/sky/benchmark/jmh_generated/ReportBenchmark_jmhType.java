@@ -0,0 +1,4 @@
+package com.sky.benchmark.jmh_generated;
+public class ReportBenchmark_jmhType extends ReportBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.sky.benchmark.jmh_generated;
+public class SnowflakeIdGeneratorBenchmark_jmhType extends SnowflakeIdGeneratorBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,20 @@
+package com.sky.constant;
+
+/**
+ * 缓存相关常量
+ */
+public class CacheConstant {
+
+    //菜品缓存，redis中的key为 dish_分类id
+    public static final String DISH_CACHE = "dish";
+
+    //套餐缓存，redis中的key为 setmealCache::分类id
+    public static final String SETMEAL_CACHE = "setmealCache";
+
+    //缓存失效通知的频道
+    public static final String CACHE_INVALIDATION_CHANNEL = "cache_invalidation";
+
+    //缓存加载的分布式锁，redis中的key为 cache_load_lock:缓存名称:key
+    public static final String CACHE_LOAD_LOCK_PREFIX = "cache_load_lock:";
+
+}
@@ -0,0 +1,14 @@
+package com.sky.constant;
+
+/**
+ * 订单相关常量
+ */
+public class OrderConstant {
+
+    //待支付订单的超时时间，redis中的sorted set，member为订单id，score为超时时间戳(毫秒)
+    public static final String ORDER_TIMEOUT_KEY = "order_timeout";
+
+    //超时自动取消的原因
+    public static final String TIMEOUT_CANCEL_REASON = "订单超时，自动取消";
+
+}
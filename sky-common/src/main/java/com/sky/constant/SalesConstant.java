@@ -0,0 +1,11 @@
+package com.sky.constant;
+
+/**
+ * 实时销量统计相关常量
+ */
+public class SalesConstant {
+
+    //订单支付成功后的销量事件频道，各节点收到后更新本节点的实时销量排名
+    public static final String SALES_EVENT_CHANNEL = "sales_event";
+
+}
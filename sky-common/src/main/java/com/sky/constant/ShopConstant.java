@@ -0,0 +1,20 @@
+package com.sky.constant;
+
+/**
+ * 店铺营业状态相关常量
+ */
+public class ShopConstant {
+
+    //营业状态在redis中的key
+    public static final String SHOP_STATUS_KEY = "SHOP_STATUS";
+
+    //营业状态变更通知频道，各节点收到后刷新本节点的营业状态
+    public static final String SHOP_STATUS_CHANNEL = "shop_status";
+
+    //营业中
+    public static final Integer OPEN = 1;
+
+    //打烊中
+    public static final Integer CLOSED = 0;
+
+}
@@ -0,0 +1,11 @@
+package com.sky.constant;
+
+/**
+ * WebSocket相关常量
+ */
+public class WebSocketConstant {
+
+    //订单事件通知的频道，各节点收到后推送给本节点的WebSocket会话
+    public static final String ORDER_EVENT_CHANNEL = "order_event";
+
+}
@@ -0,0 +1,40 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "sky.cache")
+@Data
+public class CacheProperties {
+
+    /**
+     * 本地一级缓存相关配置
+     */
+    private long localMaximumSize = 1000; //每个缓存最多保留的条目数
+    private long localExpireSeconds = 300; //写入后的过期时间(秒)，兜底丢失的失效通知
+
+    /**
+     * redis中缓存值的序列化格式：json、smile、jdk
+     */
+    private String serializer = "json"; //默认格式
+    private Map<String, String> cacheSerializers = new HashMap<>(); //按缓存名称单独指定格式
+
+    /**
+     * 缓存未命中时的加载配置，同一节点内同一个key始终只有一个线程查询数据库
+     */
+    private boolean distributedLoadLock = false; //是否再加redis分布式锁，多个节点同时未命中时只有一个节点查询数据库
+    private long loadLockSeconds = 10; //分布式锁的过期时间(秒)
+    private long loadLockWaitMillis = 3000; //未抢到锁时等待其他节点加载的最长时间(毫秒)，超时后自行查询
+
+    /**
+     * 过期数据兜底配置，缓存被清除后在一段时间内保留旧值，未命中时先返回旧值并在后台刷新
+     */
+    private boolean staleWhileRevalidate = false; //是否开启
+    private long staleExpireSeconds = 60; //旧值保留时间(秒)
+
+}
@@ -23,4 +23,10 @@ public class JwtProperties {
     private long userTtl;
     private String userTokenName;
 
+    /**
+     * 已校验令牌的本地缓存，过期时间不超过令牌本身的过期时间
+     */
+    private long verifiedCacheSize = 10000;
+    private long verifiedCacheSeconds = 300;
+
 }
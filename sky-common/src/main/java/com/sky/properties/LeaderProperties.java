@@ -0,0 +1,17 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.leader")
+@Data
+public class LeaderProperties {
+
+    private String store = "redis"; //租约存储方式：redis，单节点或测试环境可使用local
+    private String leaseName = "sky-take-out:scheduler"; //定时任务主节点租约的名称
+    private long leaseMillis = 30000; //租约时长(毫秒)，主节点宕机后最多经过这段时间由其他节点接替
+    private long renewInterval = 10000; //续约及竞选的间隔(毫秒)，必须小于租约时长
+
+}
@@ -0,0 +1,16 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.order-timeout")
+@Data
+public class OrderTimeoutProperties {
+
+    private long paymentTimeoutMinutes = 15; //待支付订单的超时时间(分钟)
+    private long pollInterval = 1000; //扫描redis中到期订单的间隔(毫秒)，兜底其他节点提交或重启前未处理的订单
+    private int pollBatchSize = 500; //每次扫描最多处理的订单数
+
+}
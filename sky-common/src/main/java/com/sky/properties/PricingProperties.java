@@ -0,0 +1,18 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+@Component
+@ConfigurationProperties(prefix = "sky.pricing")
+@Data
+public class PricingProperties {
+
+    private int packFee = 1; //每份商品的打包费(元)
+    private BigDecimal deliveryFee = new BigDecimal(6); //配送费(元)
+    private long indexExpireSeconds = 300; //价格索引的最长保留时间(秒)，兜底丢失的失效通知
+
+}
@@ -0,0 +1,20 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "sky.query-plan")
+@Data
+public class QueryPlanProperties {
+
+    private boolean checkOnStartup = true; //启动时检查所有mapper语句的执行计划，只报告不影响启动
+    private long fullScanRows = 1000; //全表扫描的预估行数达到该值时报告
+    private boolean failOnFullScan = false; //存在全表扫描时启动失败，用于在测试环境发现执行计划退化
+    private List<String> ignoredStatements = new ArrayList<>(); //不检查的语句，mapper全限定名.方法名
+
+}
@@ -0,0 +1,14 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.realtime-sales")
+@Data
+public class RealtimeSalesProperties {
+
+    private int bucketCapacity = 100; //每5分钟最多记录的商品数，超出时替换销量最低的商品，商品种类不超过该值时统计精确
+
+}
@@ -0,0 +1,14 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.sales-rollup")
+@Data
+public class SalesRollupProperties {
+
+    private int backfillDays = 3; //每天凌晨重新汇总最近几天的销量，修正增量累加遗漏或重复的数据
+
+}
@@ -0,0 +1,14 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.shop")
+@Data
+public class ShopProperties {
+
+    private long refreshInterval = 60000; //本节点营业状态与redis的对账间隔(毫秒)，兜底丢失的变更通知
+
+}
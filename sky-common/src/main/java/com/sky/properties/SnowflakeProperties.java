@@ -0,0 +1,15 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.snowflake")
+@Data
+public class SnowflakeProperties {
+
+    private long workerId = 0; //机器id，0~1023，部署多个节点时每个节点必须不同
+    private long maxClockBackwardMillis = 5000; //允许的最大时钟回拨(毫秒)，超过后拒绝生成订单号
+
+}
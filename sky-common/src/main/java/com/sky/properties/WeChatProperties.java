@@ -19,5 +19,6 @@ public class WeChatProperties {
     private String weChatPayCertFilePath; //平台证书
     private String notifyUrl; //支付成功的回调地址
     private String refundNotifyUrl; //退款成功的回调地址
+    private String loginUrl = "https://api.weixin.qq.com/sns/jscode2session"; //微信登录接口地址，压测时指向本地模拟接口
 
 }
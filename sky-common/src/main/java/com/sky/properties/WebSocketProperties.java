@@ -0,0 +1,17 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.websocket")
+@Data
+public class WebSocketProperties {
+
+    private int queueCapacity = 100; //每个会话待发送消息队列的容量
+    private String overflowPolicy = "drop-oldest"; //队列满时的处理策略：drop-oldest丢弃最早的消息，close关闭慢速连接
+    private long sendTimeoutMillis = 5000; //单条消息的发送超时时间(毫秒)，超时视为发送失败并关闭连接
+    private int dispatchThreads = 2; //负责发送消息的线程数
+
+}
@@ -4,7 +4,10 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+
+import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
 import java.util.Map;
 
@@ -55,4 +58,27 @@ public class JwtUtil {
         return claims;
     }
 
+    /**
+     * Token解密，使用预先生成的签名秘钥，避免每次解析都从字符串重新生成秘钥
+     *
+     * @param signingKey 通过getSigningKey生成的秘钥
+     * @param token      加密后的token
+     * @return
+     */
+    public static Claims parseJWT(Key signingKey, String token) {
+        return Jwts.parser()
+                .setSigningKey(signingKey)
+                .parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * 根据字符串秘钥生成Hs256签名秘钥，与createJWT使用的秘钥一致
+     *
+     * @param secretKey jwt秘钥
+     * @return
+     */
+    public static Key getSigningKey(String secretKey) {
+        return new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), SignatureAlgorithm.HS256.getJcaName());
+    }
+
 }
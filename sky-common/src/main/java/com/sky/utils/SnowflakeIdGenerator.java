@@ -0,0 +1,83 @@
+package com.sky.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 雪花算法id生成器，生成的id为 41位时间戳(毫秒) + 10位机器id + 12位序列号
+ * 时间戳和序列号合并保存在一个AtomicLong中，通过CAS无锁更新，生成过程不创建对象
+ * 同一毫秒内序列号用完时借用下一毫秒；时钟回拨时沿用上次的时间戳继续递增，回拨超过允许范围时拒绝生成
+ */
+public class SnowflakeIdGenerator {
+
+    //起始时间 2023-01-01 00:00:00 UTC
+    private static final long EPOCH = 1672531200000L;
+
+    private static final int WORKER_ID_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+
+    public static final long MAX_WORKER_ID = (1L << WORKER_ID_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int WORKER_ID_SHIFT = SEQUENCE_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
+
+    private final long workerId;
+
+    //允许的最大时钟回拨(毫秒)
+    private final long maxClockBackwardMillis;
+
+    //高位为相对起始时间的时间戳，低12位为序列号
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * @param workerId               机器id，0~1023，多个节点之间不能重复
+     * @param maxClockBackwardMillis 允许的最大时钟回拨(毫秒)
+     */
+    public SnowflakeIdGenerator(long workerId, long maxClockBackwardMillis) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("机器id必须在0~" + MAX_WORKER_ID + "之间：" + workerId);
+        }
+        this.workerId = workerId;
+        this.maxClockBackwardMillis = maxClockBackwardMillis;
+    }
+
+    /**
+     * 生成下一个id
+     *
+     * @return
+     */
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long lastTimestamp = current >>> SEQUENCE_BITS;
+            long timestamp = System.currentTimeMillis() - EPOCH;
+
+            long next;
+            if (timestamp > lastTimestamp) {
+                //进入新的毫秒，序列号从0开始
+                next = timestamp << SEQUENCE_BITS;
+            } else {
+                //同一毫秒、序列号借用到了后面的毫秒、或者时钟回拨，都在上次的基础上加一，序列号用完时进位到时间戳
+                if (lastTimestamp - timestamp > maxClockBackwardMillis) {
+                    throw new IllegalStateException("系统时钟回拨" + (lastTimestamp - timestamp) + "毫秒，拒绝生成id");
+                }
+                next = current + 1;
+            }
+
+            if (state.compareAndSet(current, next)) {
+                return ((next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT)
+                        | (workerId << WORKER_ID_SHIFT)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * 生成下一个id的字符串形式
+     *
+     * @return
+     */
+    public String nextIdStr() {
+        return Long.toString(nextId());
+    }
+}
@@ -0,0 +1,30 @@
+package com.sky.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 按日期分组的订单统计数据
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderDailyStatisticsDTO implements Serializable {
+    //下单日期
+    private LocalDate orderDate;
+
+    //营业额（已完成订单金额合计）
+    private Double turnover;
+
+    //订单总数
+    private Integer orderCount;
+
+    //有效订单数
+    private Integer validOrderCount;
+}
@@ -0,0 +1,40 @@
+package com.sky.dto;
+
+import com.sky.entity.OrderDetail;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 下单时由服务端计算的订单价格
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPriceDTO implements Serializable {
+
+    //商品金额合计
+    private BigDecimal itemAmount;
+
+    //打包费
+    private Integer packAmount;
+
+    //配送费
+    private BigDecimal deliveryFee;
+
+    //订单总金额
+    private BigDecimal amount;
+
+    //商品总份数，按餐量提供餐具时即为餐具数量
+    private Integer itemCount;
+
+    //按当前价格生成的订单明细，尚未设置订单id
+    private List<OrderDetail> orderDetailList;
+
+}
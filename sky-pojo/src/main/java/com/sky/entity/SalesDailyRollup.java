@@ -0,0 +1,36 @@
+package com.sky.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 每日商品销量汇总
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDailyRollup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    //下单日期
+    private LocalDate saleDate;
+
+    //菜品id，套餐为0
+    private Long dishId;
+
+    //套餐id，菜品为0
+    private Long setmealId;
+
+    //商品名称
+    private String name;
+
+    //销量
+    private Integer number;
+}
@@ -0,0 +1,28 @@
+package com.sky.loadtest;
+
+import com.github.fppt.jedismock.RedisServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+
+/**
+ * 压测环境配置，启动进程内的redis模拟服务，数据库使用内嵌H2
+ * 只在 mvn -Ploadtest 打包并且激活loadtest配置时生效
+ */
+@Configuration
+@Profile("loadtest")
+@Slf4j
+public class LoadTestConfiguration {
+
+    @Bean(destroyMethod = "stop")
+    public RedisServer redisServer(@Value("${sky.redis.port}") int port) throws IOException {
+        log.info("启动redis模拟服务，端口：{}", port);
+        RedisServer redisServer = RedisServer.newRedisServer(port);
+        redisServer.start();
+        return redisServer;
+    }
+}
@@ -0,0 +1,25 @@
+package com.sky.loadtest;
+
+import com.alibaba.fastjson.JSONObject;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 模拟的微信登录接口，压测时每个登录code对应一个固定的openid
+ */
+@RestController
+@RequestMapping("/loadtest/wechat")
+@Profile("loadtest")
+public class WeChatStubController {
+
+    @GetMapping("/jscode2session")
+    public String jscode2session(@RequestParam("js_code") String code) {
+        JSONObject result = new JSONObject();
+        result.put("openid", "loadtest-" + code);
+        result.put("session_key", "loadtest");
+        return result.toJSONString();
+    }
+}
@@ -0,0 +1,146 @@
+-- 压测环境的初始数据：管理员admin/123456，4个菜品分类各10个菜品，每个菜品2种口味，1个套餐分类2个套餐
+-- id按插入顺序从1开始自增，套餐菜品关系中的id与此对应
+insert into employee (name, username, password, phone, sex, id_number, status, create_time, update_time, create_user, update_user)
+values ('管理员', 'admin', 'e10adc3949ba59abbe56e057f20f883e', '13812312312', '1', '110101199001010047', 1, now(), now(), 1, 1);
+
+insert into category (type, name, sort, status, create_time, update_time, create_user, update_user) values
+(1, '热菜', 1, 1, now(), now(), 1, 1),
+(1, '凉菜', 2, 1, now(), now(), 1, 1),
+(1, '主食', 3, 1, now(), now(), 1, 1),
+(1, '饮品', 4, 1, now(), now(), 1, 1),
+(2, '人气套餐', 5, 1, now(), now(), 1, 1);
+
+insert into dish (name, category_id, price, image, description, status, create_time, update_time, create_user, update_user) values
+('热菜1号', 1, 25.00, '/loadtest/dish/1.png', '热菜1号', 1, now(), now(), 1, 1),
+('热菜2号', 1, 32.00, '/loadtest/dish/2.png', '热菜2号', 1, now(), now(), 1, 1),
+('热菜3号', 1, 39.00, '/loadtest/dish/3.png', '热菜3号', 1, now(), now(), 1, 1),
+('热菜4号', 1, 46.00, '/loadtest/dish/4.png', '热菜4号', 1, now(), now(), 1, 1),
+('热菜5号', 1, 53.00, '/loadtest/dish/5.png', '热菜5号', 1, now(), now(), 1, 1),
+('热菜6号', 1, 20.00, '/loadtest/dish/6.png', '热菜6号', 1, now(), now(), 1, 1),
+('热菜7号', 1, 27.00, '/loadtest/dish/7.png', '热菜7号', 1, now(), now(), 1, 1),
+('热菜8号', 1, 34.00, '/loadtest/dish/8.png', '热菜8号', 1, now(), now(), 1, 1),
+('热菜9号', 1, 41.00, '/loadtest/dish/9.png', '热菜9号', 1, now(), now(), 1, 1),
+('热菜10号', 1, 48.00, '/loadtest/dish/10.png', '热菜10号', 1, now(), now(), 1, 1),
+('凉菜1号', 2, 55.00, '/loadtest/dish/11.png', '凉菜1号', 1, now(), now(), 1, 1),
+('凉菜2号', 2, 22.00, '/loadtest/dish/12.png', '凉菜2号', 1, now(), now(), 1, 1),
+('凉菜3号', 2, 29.00, '/loadtest/dish/13.png', '凉菜3号', 1, now(), now(), 1, 1),
+('凉菜4号', 2, 36.00, '/loadtest/dish/14.png', '凉菜4号', 1, now(), now(), 1, 1),
+('凉菜5号', 2, 43.00, '/loadtest/dish/15.png', '凉菜5号', 1, now(), now(), 1, 1),
+('凉菜6号', 2, 50.00, '/loadtest/dish/16.png', '凉菜6号', 1, now(), now(), 1, 1),
+('凉菜7号', 2, 57.00, '/loadtest/dish/17.png', '凉菜7号', 1, now(), now(), 1, 1),
+('凉菜8号', 2, 24.00, '/loadtest/dish/18.png', '凉菜8号', 1, now(), now(), 1, 1),
+('凉菜9号', 2, 31.00, '/loadtest/dish/19.png', '凉菜9号', 1, now(), now(), 1, 1),
+('凉菜10号', 2, 38.00, '/loadtest/dish/20.png', '凉菜10号', 1, now(), now(), 1, 1),
+('主食1号', 3, 45.00, '/loadtest/dish/21.png', '主食1号', 1, now(), now(), 1, 1),
+('主食2号', 3, 52.00, '/loadtest/dish/22.png', '主食2号', 1, now(), now(), 1, 1),
+('主食3号', 3, 19.00, '/loadtest/dish/23.png', '主食3号', 1, now(), now(), 1, 1),
+('主食4号', 3, 26.00, '/loadtest/dish/24.png', '主食4号', 1, now(), now(), 1, 1),
+('主食5号', 3, 33.00, '/loadtest/dish/25.png', '主食5号', 1, now(), now(), 1, 1),
+('主食6号', 3, 40.00, '/loadtest/dish/26.png', '主食6号', 1, now(), now(), 1, 1),
+('主食7号', 3, 47.00, '/loadtest/dish/27.png', '主食7号', 1, now(), now(), 1, 1),
+('主食8号', 3, 54.00, '/loadtest/dish/28.png', '主食8号', 1, now(), now(), 1, 1),
+('主食9号', 3, 21.00, '/loadtest/dish/29.png', '主食9号', 1, now(), now(), 1, 1),
+('主食10号', 3, 28.00, '/loadtest/dish/30.png', '主食10号', 1, now(), now(), 1, 1),
+('饮品1号', 4, 35.00, '/loadtest/dish/31.png', '饮品1号', 1, now(), now(), 1, 1),
+('饮品2号', 4, 42.00, '/loadtest/dish/32.png', '饮品2号', 1, now(), now(), 1, 1),
+('饮品3号', 4, 49.00, '/loadtest/dish/33.png', '饮品3号', 1, now(), now(), 1, 1),
+('饮品4号', 4, 56.00, '/loadtest/dish/34.png', '饮品4号', 1, now(), now(), 1, 1),
+('饮品5号', 4, 23.00, '/loadtest/dish/35.png', '饮品5号', 1, now(), now(), 1, 1),
+('饮品6号', 4, 30.00, '/loadtest/dish/36.png', '饮品6号', 1, now(), now(), 1, 1),
+('饮品7号', 4, 37.00, '/loadtest/dish/37.png', '饮品7号', 1, now(), now(), 1, 1),
+('饮品8号', 4, 44.00, '/loadtest/dish/38.png', '饮品8号', 1, now(), now(), 1, 1),
+('饮品9号', 4, 51.00, '/loadtest/dish/39.png', '饮品9号', 1, now(), now(), 1, 1),
+('饮品10号', 4, 18.00, '/loadtest/dish/40.png', '饮品10号', 1, now(), now(), 1, 1);
+
+insert into dish_flavor (dish_id, name, value) values
+(1, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(1, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(2, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(2, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(3, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(3, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(4, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(4, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(5, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(5, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(6, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(6, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(7, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(7, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(8, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(8, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(9, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(9, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(10, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(10, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(11, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(11, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(12, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(12, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(13, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(13, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(14, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(14, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(15, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(15, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(16, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(16, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(17, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(17, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(18, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(18, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(19, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(19, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(20, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(20, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(21, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(21, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(22, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(22, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(23, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(23, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(24, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(24, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(25, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(25, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(26, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(26, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(27, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(27, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(28, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(28, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(29, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(29, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(30, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(30, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(31, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(31, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(32, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(32, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(33, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(33, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(34, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(34, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(35, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(35, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(36, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(36, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(37, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(37, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(38, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(38, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(39, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(39, '忌口', '["不要葱","不要蒜","不要香菜"]'),
+(40, '辣度', '["不辣","微辣","中辣","重辣"]'),
+(40, '忌口', '["不要葱","不要蒜","不要香菜"]');
+
+insert into setmeal (category_id, name, price, status, description, image, create_time, update_time, create_user, update_user) values
+(5, '双人套餐', 88.00, 1, '双人套餐', '/loadtest/setmeal/1.png', now(), now(), 1, 1),
+(5, '单人套餐', 48.00, 1, '单人套餐', '/loadtest/setmeal/2.png', now(), now(), 1, 1);
+
+insert into setmeal_dish (setmeal_id, dish_id, name, price, copies) values
+(1, 1, '热菜1号', 25.00, 1),
+(1, 11, '凉菜1号', 55.00, 1),
+(1, 21, '主食1号', 45.00, 2),
+(2, 2, '热菜2号', 32.00, 1),
+(2, 22, '主食2号', 52.00, 1);
@@ -0,0 +1,173 @@
+-- 压测环境的表结构，与MySQL中的表保持一致；索引不在此重复定义，与线上共用 db/query_indexes.sql
+create table employee
+(
+    id          bigint auto_increment primary key,
+    name        varchar(32)  not null,
+    username    varchar(32)  not null unique,
+    password    varchar(64)  not null,
+    phone       varchar(11)  not null,
+    sex         varchar(2)   not null,
+    id_number   varchar(18)  not null,
+    status      int          not null default 1,
+    create_time datetime,
+    update_time datetime,
+    create_user bigint,
+    update_user bigint
+);
+
+create table category
+(
+    id          bigint auto_increment primary key,
+    type        int,
+    name        varchar(32) not null unique,
+    sort        int         not null default 0,
+    status      int,
+    create_time datetime,
+    update_time datetime,
+    create_user bigint,
+    update_user bigint
+);
+
+create table dish
+(
+    id          bigint auto_increment primary key,
+    name        varchar(32)   not null unique,
+    category_id bigint        not null,
+    price       decimal(10, 2),
+    image       varchar(255),
+    description varchar(255),
+    status      int default 1,
+    create_time datetime,
+    update_time datetime,
+    create_user bigint,
+    update_user bigint
+);
+
+create table dish_flavor
+(
+    id      bigint auto_increment primary key,
+    dish_id bigint not null,
+    name    varchar(32),
+    value   varchar(255)
+);
+
+create table setmeal
+(
+    id          bigint auto_increment primary key,
+    category_id bigint         not null,
+    name        varchar(32)    not null unique,
+    price       decimal(10, 2) not null,
+    status      int default 1,
+    description varchar(255),
+    image       varchar(255),
+    create_time datetime,
+    update_time datetime,
+    create_user bigint,
+    update_user bigint
+);
+
+create table setmeal_dish
+(
+    id         bigint auto_increment primary key,
+    setmeal_id bigint,
+    dish_id    bigint,
+    name       varchar(32),
+    price      decimal(10, 2),
+    copies     int
+);
+
+create table user
+(
+    id          bigint auto_increment primary key,
+    openid      varchar(45),
+    name        varchar(32),
+    phone       varchar(11),
+    sex         varchar(2),
+    id_number   varchar(18),
+    avatar      varchar(500),
+    create_time datetime
+);
+
+create table address_book
+(
+    id            bigint auto_increment primary key,
+    user_id       bigint       not null,
+    consignee     varchar(50),
+    sex           varchar(2),
+    phone         varchar(11)  not null,
+    province_code varchar(12),
+    province_name varchar(32),
+    city_code     varchar(12),
+    city_name     varchar(32),
+    district_code varchar(12),
+    district_name varchar(32),
+    detail        varchar(200),
+    label         varchar(100),
+    is_default    tinyint default 0 not null
+);
+
+create table shopping_cart
+(
+    id          bigint auto_increment primary key,
+    name        varchar(32),
+    image       varchar(255),
+    user_id     bigint         not null,
+    dish_id     bigint,
+    setmeal_id  bigint,
+    dish_flavor varchar(50),
+    number      int default 1  not null,
+    amount      decimal(10, 2) not null,
+    create_time datetime
+);
+
+create table orders
+(
+    id                      bigint auto_increment primary key,
+    number                  varchar(50),
+    status                  int default 1 not null,
+    user_id                 bigint        not null,
+    address_book_id         bigint        not null,
+    order_time              datetime      not null,
+    checkout_time           datetime,
+    pay_method              int default 1 not null,
+    pay_status              tinyint default 0 not null,
+    amount                  decimal(10, 2) not null,
+    remark                  varchar(100),
+    phone                   varchar(11),
+    address                 varchar(255),
+    user_name               varchar(32),
+    consignee               varchar(32),
+    cancel_reason           varchar(255),
+    rejection_reason        varchar(255),
+    cancel_time             datetime,
+    estimated_delivery_time datetime,
+    delivery_status         tinyint default 1 not null,
+    delivery_time           datetime,
+    pack_amount             int,
+    tableware_number        int,
+    tableware_status        tinyint default 1 not null
+);
+
+create table order_detail
+(
+    id          bigint auto_increment primary key,
+    name        varchar(32),
+    image       varchar(255),
+    order_id    bigint         not null,
+    dish_id     bigint,
+    setmeal_id  bigint,
+    dish_flavor varchar(50),
+    number      int default 1  not null,
+    amount      decimal(10, 2) not null
+);
+
+create table sales_daily_rollup
+(
+    sale_date   date                 not null,
+    dish_id     bigint   default 0   not null,
+    setmeal_id  bigint   default 0   not null,
+    name        varchar(32),
+    number      int      default 0   not null,
+    update_time datetime default CURRENT_TIMESTAMP not null,
+    primary key (sale_date, dish_id, setmeal_id)
+);
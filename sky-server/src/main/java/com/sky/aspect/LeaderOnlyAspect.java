@@ -0,0 +1,42 @@
+package com.sky.aspect;
+
+import com.sky.lease.LeaderElection;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 自定义切面，非主节点跳过标注了LeaderOnly的方法
+ */
+@Aspect
+@Component
+@Slf4j
+public class LeaderOnlyAspect {
+
+    @Autowired
+    private LeaderElection leaderElection;
+
+    /**
+     * 切入点
+     */
+    @Pointcut("@annotation(com.sky.annotation.LeaderOnly)")
+    private void leaderOnlyPointcut() {
+    }
+
+    /**
+     * 环绕通知，当前节点持有租约时才执行方法
+     */
+    @Around("leaderOnlyPointcut()")
+    public Object leaderOnly(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!leaderElection.isLeader()) {
+            leaderElection.recordSkippedRun();
+            log.debug("当前节点不是主节点，跳过：{}", joinPoint.getSignature().toShortString());
+            return null;
+        }
+        return joinPoint.proceed();
+    }
+}
@@ -0,0 +1,162 @@
+package com.sky.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalTimeSerializer;
+import com.sky.json.JacksonObjectMapper;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+
+/**
+ * redis缓存值的序列化器
+ * 写入时按配置的格式序列化：带类型信息的JSON、二进制的Smile或者JDK序列化；
+ * 读取时根据数据头部识别实际格式，切换格式后redis中的旧数据(包括原来JDK序列化的数据)仍可正常读取，随缓存过期或更新逐步替换
+ */
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 序列化格式
+     */
+    public enum Format {
+        JSON, SMILE, JDK
+    }
+
+    //JDK序列化数据的魔数 0xACED
+    private static final byte JDK_MAGIC_1 = (byte) 0xAC;
+    private static final byte JDK_MAGIC_2 = (byte) 0xED;
+
+    //Smile数据的头部 ":)\n"
+    private static final byte SMILE_HEADER_1 = ':';
+    private static final byte SMILE_HEADER_2 = ')';
+    private static final byte SMILE_HEADER_3 = '\n';
+
+    //只允许反序列化项目自身以及常用JDK类型，防止redis中的数据被篡改后构造任意对象
+    private static final PolymorphicTypeValidator TYPE_VALIDATOR = BasicPolymorphicTypeValidator.builder()
+            .allowIfSubType("com.sky.")
+            .allowIfSubType("java.util.")
+            .allowIfSubType("java.lang.")
+            .allowIfSubType("java.math.")
+            .allowIfSubType("java.time.")
+            .build();
+
+    //读取日期时间时日期与时间之间可以是T或空格，秒可以省略，兼容按接口格式 yyyy-MM-dd HH:mm 写入的旧数据
+    private static final DateTimeFormatter LENIENT_DATE_TIME = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .optionalStart().appendLiteral('T').optionalEnd()
+            .optionalStart().appendLiteral(' ').optionalEnd()
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .toFormatter();
+
+    private static final ObjectMapper JSON_MAPPER = createObjectMapper(null);
+
+    private static final ObjectMapper SMILE_MAPPER = createObjectMapper(new SmileFactory());
+
+    private static final JdkSerializationRedisSerializer JDK_SERIALIZER = new JdkSerializationRedisSerializer();
+
+    private final Format format;
+
+    public CacheValueSerializer(Format format) {
+        this.format = format;
+    }
+
+    /**
+     * 根据配置的格式名称创建序列化器
+     *
+     * @param format json、smile、jdk，不区分大小写
+     * @return
+     */
+    public static CacheValueSerializer of(String format) {
+        return new CacheValueSerializer(Format.valueOf(format.trim().toUpperCase()));
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            switch (format) {
+                case SMILE:
+                    return SMILE_MAPPER.writeValueAsBytes(value);
+                case JDK:
+                    return JDK_SERIALIZER.serialize(value);
+                default:
+                    return JSON_MAPPER.writeValueAsBytes(value);
+            }
+        } catch (SerializationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SerializationException("缓存值序列化失败：" + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            if (isJdk(bytes)) {
+                return JDK_SERIALIZER.deserialize(bytes);
+            }
+            if (isSmile(bytes)) {
+                return SMILE_MAPPER.readValue(bytes, Object.class);
+            }
+            return JSON_MAPPER.readValue(bytes, Object.class);
+        } catch (SerializationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SerializationException("缓存值反序列化失败", e);
+        }
+    }
+
+    private static boolean isJdk(byte[] bytes) {
+        return bytes.length > 1 && bytes[0] == JDK_MAGIC_1 && bytes[1] == JDK_MAGIC_2;
+    }
+
+    private static boolean isSmile(byte[] bytes) {
+        return bytes.length > 2
+                && bytes[0] == SMILE_HEADER_1
+                && bytes[1] == SMILE_HEADER_2
+                && bytes[2] == SMILE_HEADER_3;
+    }
+
+    /**
+     * 基于项目的对象映射器创建缓存使用的映射器，非final类型写入@class类型信息，读取时还原为原来的对象
+     * 日期时间改用ISO格式读写，接口使用的 yyyy-MM-dd HH:mm 会丢失秒，缓存的值需要与数据库中的完全一致
+     *
+     * @param jsonFactory
+     * @return
+     */
+    private static ObjectMapper createObjectMapper(JsonFactory jsonFactory) {
+        ObjectMapper objectMapper = new JacksonObjectMapper(jsonFactory);
+        //后注册的序列化器优先，覆盖JacksonObjectMapper中的接口格式
+        SimpleModule javaTimeModule = new SimpleModule("CacheJavaTimeModule")
+                .addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer(LENIENT_DATE_TIME))
+                .addDeserializer(LocalDate.class, new LocalDateDeserializer(DateTimeFormatter.ISO_LOCAL_DATE))
+                .addDeserializer(LocalTime.class, new LocalTimeDeserializer(DateTimeFormatter.ISO_LOCAL_TIME))
+                .addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .addSerializer(LocalDate.class, new LocalDateSerializer(DateTimeFormatter.ISO_LOCAL_DATE))
+                .addSerializer(LocalTime.class, new LocalTimeSerializer(DateTimeFormatter.ISO_LOCAL_TIME));
+        objectMapper.registerModule(javaTimeModule);
+        objectMapper.activateDefaultTyping(TYPE_VALIDATOR, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return objectMapper;
+    }
+}
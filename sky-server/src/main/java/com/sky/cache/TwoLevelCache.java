@@ -0,0 +1,310 @@
+package com.sky.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 两级缓存：本地Caffeine作为一级缓存，redis作为二级缓存
+ * 读取时先查本地，未命中再查redis并回填本地；修改时同时更新两级缓存，并通知其他节点清除本地缓存
+ * 两级缓存都未命中时，同一个key只由一个线程加载，其余线程等待其结果；开启分布式锁时多个节点之间也只加载一次
+ * 回填本地缓存前记录key的失效版本，回填后版本发生变化说明读取期间key被修改或清除，撤销本次回填，
+ * 避免读到的旧值在失效之后写入本地缓存并一直保留到过期
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    //等待其他节点加载时查询redis的间隔(毫秒)
+    private static final long LOAD_WAIT_INTERVAL = 50;
+
+    //失效版本的分段数，按key的hash分段，不同key可能共用一个版本，只会多撤销一些回填
+    private static final int VERSION_STRIPES = 64;
+
+    private final String name;
+
+    //一级缓存，key统一转为字符串，与redis中的key保持一致
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+
+    //被清除的旧值，未开启过期数据兜底时为空
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> staleCache;
+
+    //二级缓存
+    private final Cache redisCache;
+
+    private final TwoLevelCacheManager cacheManager;
+
+    //正在加载的key
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> loadingMap = new ConcurrentHashMap<>();
+
+    //本地缓存的失效版本，key每次被修改或清除时加一
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache,
+                         com.github.benmanes.caffeine.cache.Cache<Object, Object> staleCache,
+                         Cache redisCache,
+                         TwoLevelCacheManager cacheManager) {
+        super(true);
+        this.name = name;
+        this.localCache = localCache;
+        this.staleCache = staleCache;
+        this.redisCache = redisCache;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = localKey(key);
+        Object value = localCache.getIfPresent(localKey);
+        if (value != null) {
+            return value;
+        }
+
+        //本地未命中，查询redis并回填本地缓存
+        long version = version(localKey);
+        ValueWrapper wrapper = redisCache.get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        value = toStoreValue(wrapper.get());
+        putLocal(localKey, value, version);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) fromStoreValue(value);
+        }
+
+        String localKey = localKey(key);
+        if (staleCache != null) {
+            Object staleValue = staleCache.getIfPresent(localKey);
+            if (staleValue != null) {
+                //先返回旧值，由后台线程加载新值
+                if (!loadingMap.containsKey(localKey)) {
+                    cacheManager.refreshAsync(() -> load(key, localKey, valueLoader));
+                }
+                return (T) fromStoreValue(staleValue);
+            }
+        }
+
+        return (T) fromStoreValue(load(key, localKey, valueLoader));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redisCache.put(key, value);
+        //使并发读取到的旧值不再回填
+        incrementVersion(localKey(key));
+        localCache.put(localKey(key), toStoreValue(value));
+        invalidateStale(localKey(key));
+        cacheManager.publishEvict(name, localKey(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        evictLocal(localKey(key));
+        cacheManager.publishEvict(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        evictLocal(null);
+        cacheManager.publishEvict(name, null);
+    }
+
+    /**
+     * 清除本地缓存，收到其他节点的失效通知时也调用此方法
+     * 开启过期数据兜底时，被清除的值转入旧值缓存
+     *
+     * @param key 为空时清除全部
+     */
+    public void evictLocal(String key) {
+        incrementVersion(key);
+        if (key == null) {
+            if (staleCache != null) {
+                staleCache.putAll(localCache.asMap());
+            }
+            localCache.invalidateAll();
+            return;
+        }
+
+        if (staleCache != null) {
+            Object value = localCache.getIfPresent(key);
+            if (value != null) {
+                staleCache.put(key, value);
+            }
+        }
+        localCache.invalidate(key);
+    }
+
+    /**
+     * 加载数据，同一个key同时只有一个线程执行加载，其余线程等待并共享结果
+     *
+     * @param key
+     * @param localKey
+     * @param valueLoader
+     * @return 写入缓存的值
+     */
+    private Object load(Object key, String localKey, Callable<?> valueLoader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> loading = loadingMap.putIfAbsent(localKey, future);
+        if (loading != null) {
+            try {
+                return loading.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        try {
+            long version = version(localKey);
+            //可能在排队期间已经由其他线程或节点写入redis
+            ValueWrapper wrapper = redisCache.get(key);
+            Object value;
+            if (wrapper != null) {
+                value = toStoreValue(wrapper.get());
+            } else if (cacheManager.isDistributedLoadLock()) {
+                value = toStoreValue(loadWithLock(key, valueLoader));
+            } else {
+                Object loaded = loadValue(key, valueLoader);
+                redisCache.put(key, loaded);
+                value = toStoreValue(loaded);
+            }
+
+            putLocal(localKey, value, version);
+            invalidateStale(localKey);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingMap.remove(localKey, future);
+        }
+    }
+
+    /**
+     * 使用redis分布式锁加载数据，抢到锁的节点查询数据库并写入redis，其余节点等待redis中出现数据
+     *
+     * @param key
+     * @param valueLoader
+     * @return
+     */
+    private Object loadWithLock(Object key, Callable<?> valueLoader) {
+        String lockKey = name + ":" + localKey(key);
+        String token = UUID.randomUUID().toString();
+
+        if (cacheManager.tryLock(lockKey, token)) {
+            try {
+                ValueWrapper wrapper = redisCache.get(key);
+                if (wrapper != null) {
+                    return wrapper.get();
+                }
+                Object loaded = loadValue(key, valueLoader);
+                redisCache.put(key, loaded);
+                return loaded;
+            } finally {
+                cacheManager.unlock(lockKey, token);
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + cacheManager.getLoadLockWaitMillis();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LOAD_WAIT_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            ValueWrapper wrapper = redisCache.get(key);
+            if (wrapper != null) {
+                return wrapper.get();
+            }
+        }
+
+        //等待超时，自行查询
+        Object loaded = loadValue(key, valueLoader);
+        redisCache.put(key, loaded);
+        return loaded;
+    }
+
+    private Object loadValue(Object key, Callable<?> valueLoader) {
+        try {
+            return valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * 回填本地缓存，读取期间key已失效时撤销回填
+     * 先写入再检查版本，检查通过后发生的失效会清除本次写入的值，检查不通过时由本方法清除
+     *
+     * @param localKey
+     * @param value
+     * @param version 读取之前的失效版本
+     */
+    private void putLocal(String localKey, Object value, long version) {
+        localCache.put(localKey, value);
+        if (version(localKey) != version) {
+            localCache.invalidate(localKey);
+        }
+    }
+
+    private long version(String localKey) {
+        return versions.get(stripe(localKey));
+    }
+
+    /**
+     * 增加失效版本
+     *
+     * @param localKey 为空时增加全部分段
+     */
+    private void incrementVersion(String localKey) {
+        if (localKey == null) {
+            for (int i = 0; i < VERSION_STRIPES; i++) {
+                versions.incrementAndGet(i);
+            }
+            return;
+        }
+        versions.incrementAndGet(stripe(localKey));
+    }
+
+    private int stripe(String localKey) {
+        return (localKey.hashCode() & Integer.MAX_VALUE) % VERSION_STRIPES;
+    }
+
+    private void invalidateStale(String localKey) {
+        if (staleCache != null) {
+            staleCache.invalidate(localKey);
+        }
+    }
+
+    private String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,213 @@
+package com.sky.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sky.constant.CacheConstant;
+import com.sky.properties.CacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 两级缓存管理器，包装redis缓存管理器，为每个缓存加上本地一级缓存
+ * 缓存被修改时通过redis发布订阅通知其他节点清除本地缓存
+ * 同时提供缓存加载使用的分布式锁和后台刷新线程池
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    //失效通知消息的分隔符，消息格式为 节点id|缓存名称|key，key为空表示清除全部
+    private static final String SEPARATOR = "|";
+
+    //当前节点id，用于忽略自己发出的通知
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CacheManager redisCacheManager;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final CacheProperties cacheProperties;
+
+    //释放分布式锁，只删除自己持有的锁
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final ConcurrentHashMap<String, TwoLevelCache> cacheMap = new ConcurrentHashMap<>();
+
+    //后台刷新缓存的线程池，任务过多时直接丢弃，由后续请求重新触发
+    private final ThreadPoolExecutor refreshExecutor = new ThreadPoolExecutor(
+            2, 2, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(100),
+            runnable -> {
+                Thread thread = new Thread(runnable, "cache-refresh");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    public TwoLevelCacheManager(CacheManager redisCacheManager,
+                                StringRedisTemplate stringRedisTemplate,
+                                CacheProperties cacheProperties) {
+        this.redisCacheManager = redisCacheManager;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cacheProperties = cacheProperties;
+        refreshExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = cacheMap.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        return cacheMap.computeIfAbsent(name, key -> new TwoLevelCache(key, buildLocalCache(), buildStaleCache(), redisCache, this));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(cacheMap.keySet());
+    }
+
+    /**
+     * 通知其他节点清除本地缓存
+     *
+     * @param cacheName
+     * @param key       为空时清除全部
+     */
+    public void publishEvict(String cacheName, String key) {
+        String message = nodeId + SEPARATOR + cacheName + SEPARATOR + (key == null ? "" : key);
+        try {
+            stringRedisTemplate.convertAndSend(CacheConstant.CACHE_INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            //通知失败时其他节点的本地缓存依靠过期时间兜底
+            log.warn("发送缓存失效通知失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 收到缓存失效通知，清除本地缓存
+     *
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = parseMessage(message);
+        if (parts == null || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = cacheMap.get(parts[1]);
+        if (cache != null) {
+            cache.evictLocal(parts[2].isEmpty() ? null : parts[2]);
+        }
+    }
+
+    /**
+     * 从缓存失效通知中解析出缓存名称，供其他订阅同一频道的组件使用
+     *
+     * @param message
+     * @return 消息格式不正确时返回null
+     */
+    public static String getCacheName(Message message) {
+        String[] parts = parseMessage(message);
+        return parts == null ? null : parts[1];
+    }
+
+    private static String[] parseMessage(Message message) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\" + SEPARATOR, 3);
+        return parts.length < 3 ? null : parts;
+    }
+
+    /**
+     * 尝试获取缓存加载的分布式锁
+     *
+     * @param lockKey
+     * @param token   锁的持有者标识
+     * @return redis不可用时返回true，退化为节点内的加载合并
+     */
+    public boolean tryLock(String lockKey, String token) {
+        try {
+            Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(
+                    CacheConstant.CACHE_LOAD_LOCK_PREFIX + lockKey, token,
+                    cacheProperties.getLoadLockSeconds(), TimeUnit.SECONDS);
+            return Boolean.TRUE.equals(locked);
+        } catch (Exception e) {
+            log.warn("获取缓存加载锁失败：{}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 释放缓存加载的分布式锁
+     *
+     * @param lockKey
+     * @param token
+     */
+    public void unlock(String lockKey, String token) {
+        try {
+            stringRedisTemplate.execute(UNLOCK_SCRIPT,
+                    Collections.singletonList(CacheConstant.CACHE_LOAD_LOCK_PREFIX + lockKey), token);
+        } catch (Exception e) {
+            //释放失败时锁会自动过期
+            log.warn("释放缓存加载锁失败：{}", e.getMessage());
+        }
+    }
+
+    public boolean isDistributedLoadLock() {
+        return cacheProperties.isDistributedLoadLock();
+    }
+
+    public long getLoadLockWaitMillis() {
+        return cacheProperties.getLoadLockWaitMillis();
+    }
+
+    /**
+     * 在后台线程中刷新缓存
+     *
+     * @param task
+     */
+    public void refreshAsync(Runnable task) {
+        refreshExecutor.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.warn("后台刷新缓存失败：{}", e.getMessage());
+            }
+        });
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> buildLocalCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getLocalMaximumSize())
+                .expireAfterWrite(cacheProperties.getLocalExpireSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> buildStaleCache() {
+        if (!cacheProperties.isStaleWhileRevalidate()) {
+            return null;
+        }
+        return Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getLocalMaximumSize())
+                .expireAfterWrite(cacheProperties.getStaleExpireSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+}
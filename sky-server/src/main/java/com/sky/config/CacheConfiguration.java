@@ -0,0 +1,62 @@
+package com.sky.config;
+
+import com.sky.cache.CacheValueSerializer;
+import com.sky.cache.TwoLevelCacheManager;
+import com.sky.constant.CacheConstant;
+import com.sky.properties.CacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 缓存配置类，创建本地缓存+redis的两级缓存管理器
+ */
+@Configuration
+@Slf4j
+public class CacheConfiguration {
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             CacheProperties cacheProperties) {
+        log.info("创建两级缓存管理器：{}", cacheProperties);
+        RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(valueSerializationPair(cacheProperties.getSerializer()));
+
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        cacheConfigurations.put(CacheConstant.SETMEAL_CACHE, defaultConfig);
+        //菜品缓存沿用 dish_分类id 的key格式
+        cacheConfigurations.put(CacheConstant.DISH_CACHE, defaultConfig.computePrefixWith(cacheName -> cacheName + "_"));
+
+        //按缓存名称单独指定值的序列化格式
+        cacheProperties.getCacheSerializers().forEach((cacheName, serializer) -> {
+            RedisCacheConfiguration config = cacheConfigurations.getOrDefault(cacheName, defaultConfig);
+            cacheConfigurations.put(cacheName, config.serializeValuesWith(valueSerializationPair(serializer)));
+        });
+
+        //清空整个缓存时使用SCAN分批删除，避免KEYS命令阻塞redis
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory, BatchStrategies.scan(1000));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(cacheWriter)
+                .cacheDefaults(defaultConfig)
+                .withInitialCacheConfigurations(cacheConfigurations)
+                .build();
+        redisCacheManager.initializeCaches();
+
+        return new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate, cacheProperties);
+    }
+
+    private RedisSerializationContext.SerializationPair<Object> valueSerializationPair(String serializer) {
+        return RedisSerializationContext.SerializationPair.fromSerializer(CacheValueSerializer.of(serializer));
+    }
+}
@@ -1,23 +1,66 @@
 package com.sky.config;
 
+import com.sky.cache.CacheValueSerializer;
+import com.sky.cache.TwoLevelCacheManager;
+import com.sky.constant.CacheConstant;
+import com.sky.constant.SalesConstant;
+import com.sky.constant.ShopConstant;
+import com.sky.constant.WebSocketConstant;
+import com.sky.pricing.PriceIndex;
+import com.sky.properties.CacheProperties;
+import com.sky.service.impl.ShopServiceImpl;
+import com.sky.statistics.RealtimeSalesTracker;
+import com.sky.websocket.WebSocketPublisher;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
 @Slf4j
 public class RedisConfiguration {
     @Bean
-    public RedisTemplate redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public RedisTemplate redisTemplate(RedisConnectionFactory redisConnectionFactory, CacheProperties cacheProperties) {
         log.info("创建Redis模板对象----");
         RedisTemplate redisTemplate = new RedisTemplate();
         //设置Redis的连接工厂对象
         redisTemplate.setConnectionFactory(redisConnectionFactory);
         //设置redis key的序列化器
         redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        //设置redis value的序列化器，兼容读取原来JDK序列化的数据
+        CacheValueSerializer valueSerializer = CacheValueSerializer.of(cacheProperties.getSerializer());
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.setHashValueSerializer(valueSerializer);
         return redisTemplate;
     }
+
+    /**
+     * redis消息监听容器，订阅各节点间的通知频道
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       TwoLevelCacheManager cacheManager,
+                                                                       PriceIndex priceIndex,
+                                                                       WebSocketPublisher webSocketPublisher,
+                                                                       RealtimeSalesTracker realtimeSalesTracker,
+                                                                       ShopServiceImpl shopService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        //缓存失效通知
+        container.addMessageListener(cacheManager, new ChannelTopic(CacheConstant.CACHE_INVALIDATION_CHANNEL));
+        //菜品、套餐被修改时价格索引随之失效
+        container.addMessageListener(priceIndex, new ChannelTopic(CacheConstant.CACHE_INVALIDATION_CHANNEL));
+        //订单事件，推送给本节点的websocket会话
+        container.addMessageListener(webSocketPublisher, new ChannelTopic(WebSocketConstant.ORDER_EVENT_CHANNEL));
+        //销量事件，更新本节点的实时销量排名
+        container.addMessageListener(realtimeSalesTracker, new ChannelTopic(SalesConstant.SALES_EVENT_CHANNEL));
+        //营业状态变更，刷新本节点的营业状态
+        container.addMessageListener(shopService, new ChannelTopic(ShopConstant.SHOP_STATUS_CHANNEL));
+        return container;
+    }
 }
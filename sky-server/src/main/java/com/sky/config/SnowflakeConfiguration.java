@@ -0,0 +1,26 @@
+package com.sky.config;
+
+import com.sky.properties.SnowflakeProperties;
+import com.sky.utils.SnowflakeIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 配置类，用于创建订单号生成器对象
+ */
+@Configuration
+@Slf4j
+public class SnowflakeConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SnowflakeIdGenerator snowflakeIdGenerator(SnowflakeProperties snowflakeProperties) {
+        log.info("开始创建订单号生成器对象:{}", snowflakeProperties);
+
+        return new SnowflakeIdGenerator(snowflakeProperties.getWorkerId(),
+                snowflakeProperties.getMaxClockBackwardMillis());
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.sky.controller.admin;
 
+import com.sky.constant.CacheConstant;
 import com.sky.dto.DishDTO;
 import com.sky.dto.DishPageQueryDTO;
 import com.sky.entity.Dish;
@@ -11,11 +12,15 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * 菜品管理
@@ -29,7 +34,7 @@ public class DishController {
     private DishService dishService;
 
     @Autowired
-    private RedisTemplate redisTemplate;
+    private CacheManager cacheManager;
 
     /**
      * 新增菜品
@@ -43,10 +48,8 @@ public class DishController {
 
         dishService.saveWithFlavor(dishDTO);
 
-        //清除redis中缓存数据
-//        redisTemplate.delete("dish_" + dishDTO.getCategoryId());
-
-        cleanRedisCache("dish_" + dishDTO.getCategoryId());
+        //清除当前分类的菜品缓存
+        cleanCache(Collections.singletonList(dishDTO.getCategoryId()));
 
         return Result.success();
 
@@ -68,10 +71,13 @@ public class DishController {
     @DeleteMapping
     @ApiOperation("菜品批量删除")
     public Result delete(@RequestParam List<Long> ids) {
+        //删除前查询菜品所属的分类
+        List<Long> categoryIds = dishService.getCategoryIdsByIds(ids);
+
         dishService.deleteBatch(ids);
 
-        //将redis中所有菜品缓存数据清除
-        cleanRedisCache("dish_*");
+        //只清除被删除菜品所属分类的缓存
+        cleanCache(categoryIds);
 
 
         return Result.success();
@@ -102,10 +108,16 @@ public class DishController {
     @PutMapping
     @ApiOperation("修改菜品")
     public Result update(@RequestBody DishDTO dishDTO) {
+        //修改前查询菜品原来所属的分类，菜品可能被移到其他分类
+        List<Long> categoryIds = new ArrayList<>(dishService.getCategoryIdsByIds(Collections.singletonList(dishDTO.getId())));
+
         dishService.updateWithFlavors(dishDTO);
 
-        //将redis中所有菜品缓存数据清除
-        cleanRedisCache("dish_*");
+        //清除原分类和新分类的缓存
+        if (dishDTO.getCategoryId() != null) {
+            categoryIds.add(dishDTO.getCategoryId());
+        }
+        cleanCache(categoryIds);
 
         return Result.success();
 
@@ -137,24 +149,40 @@ public class DishController {
     @PostMapping("/status/{status}")
     @ApiOperation("菜品起售停售")
     public Result saleOrNotSale(@RequestParam Long id, @PathVariable Integer status) {
-        dishService.saleOrNotSale(status, id);
+        List<Long> setmealCategoryIds = dishService.saleOrNotSale(status, id);
 
-        //清除redis中所有缓存数据
-        cleanRedisCache("dish_*");
+        //清除菜品所属分类的缓存
+        cleanCache(dishService.getCategoryIdsByIds(Collections.singletonList(id)));
+        //停售菜品时只清除被一起停售的套餐所属分类的缓存
+        cleanCache(CacheConstant.SETMEAL_CACHE, setmealCategoryIds);
 
         return Result.success();
 
     }
 
     /**
-     * 清楚redis中缓存菜品数据
+     * 按分类清除本地及redis中缓存的菜品数据，并通知其他节点
+     * 只删除 dish_分类id 这几个确定的key，不再扫描redis中的全部key
+     *
+     * @param categoryIds 分类id集合
+     */
+    private void cleanCache(Collection<Long> categoryIds) {
+        cleanCache(CacheConstant.DISH_CACHE, categoryIds);
+    }
+
+    /**
+     * 按分类清除指定缓存
      *
-     * @param pattern
+     * @param cacheName   缓存名称
+     * @param categoryIds 分类id集合
      */
-    private void cleanRedisCache(String pattern) {
-        //将redis中所有菜品缓存数据清除
-        Set keys = redisTemplate.keys(pattern);
-        redisTemplate.delete(keys);
+    private void cleanCache(String cacheName, Collection<Long> categoryIds) {
+        Cache cache = cacheManager.getCache(cacheName);
+        new HashSet<>(categoryIds).forEach(categoryId -> {
+            if (categoryId != null) {
+                cache.evict(categoryId);
+            }
+        });
     }
 
 
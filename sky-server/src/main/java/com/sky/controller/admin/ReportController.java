@@ -115,13 +115,36 @@ public class ReportController {
     }
 
     /**
-     * 导出运营数据报表
+     * 实时销量TOP10统计
+     *
+     * @param hours 统计最近几小时，1~24，默认1小时
+     * @return
+     */
+    @GetMapping("/realtimeTop10")
+    @ApiOperation("实时销量TOP10统计")
+    public Result<SalesTop10ReportVO> realtimeTop10(@RequestParam(value = "hours", defaultValue = "1") Integer hours) {
+        return Result.success(reportService.getRealtimeSalesTop10(hours));
+    }
+
+    /**
+     * 导出运营数据报表，未指定时间区间时导出最近30天
+     * @param beginTime
+     * @param endTime
      * @param response
      */
     @GetMapping("/export")
     @ApiOperation("导出运营数据报表")
-    public void export(HttpServletResponse response){
-        reportService.exportBusinessData(response);
+    public void export(
+            @DateTimeFormat(pattern = "yyyy-MM-dd")@RequestParam(value = "begin", required = false)
+            LocalDate beginTime,
+            @DateTimeFormat(pattern = "yyyy-MM-dd")@RequestParam(value = "end", required = false)
+            LocalDate endTime,
+            HttpServletResponse response){
+        if (beginTime == null || endTime == null) {
+            reportService.exportBusinessData(response);
+            return;
+        }
+        reportService.exportBusinessData(beginTime, endTime, response);
 
     }
 
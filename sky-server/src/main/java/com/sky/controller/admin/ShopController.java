@@ -1,11 +1,11 @@
 package com.sky.controller.admin;
 
 import com.sky.result.Result;
+import com.sky.service.ShopService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.web.bind.annotation.*;
 
 @RestController("adminShopController")
@@ -15,10 +15,8 @@ import org.springframework.web.bind.annotation.*;
 public class ShopController {
 
 
-    public static final String KEY="SHOP_STATUS";
-
     @Autowired
-    private RedisTemplate redisTemplate;
+    private ShopService shopService;
 
     /**
      * 设置店铺营业状态
@@ -30,7 +28,7 @@ public class ShopController {
     @ApiOperation("设置店铺营业状态")
     public Result setStatus(@PathVariable Integer status) {
 
-        redisTemplate.opsForValue().set(KEY, status);
+        shopService.setStatus(status);
 
 
         return Result.success();
@@ -45,7 +43,7 @@ public class ShopController {
     @ApiOperation("查询店铺营业状态")
     public Result<Integer> getStatus() {
 
-        Integer shopStatus = (Integer) redisTemplate.opsForValue().get(KEY);
+        Integer shopStatus = shopService.getStatus();
 
 
         return Result.success(shopStatus);
@@ -1,5 +1,6 @@
 package com.sky.controller.user;
 
+import com.sky.constant.CacheConstant;
 import com.sky.constant.StatusConstant;
 import com.sky.entity.Dish;
 import com.sky.result.Result;
@@ -9,7 +10,8 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -26,7 +28,7 @@ public class DishController {
     private DishService dishService;
 
     @Autowired
-    private RedisTemplate redisTemplate;
+    private CacheManager cacheManager;
 
     /**
      * 根据分类id查询菜品
@@ -37,26 +39,16 @@ public class DishController {
     @GetMapping("/list")
     @ApiOperation("根据分类id查询菜品")
     public Result<List<DishVO>> list(@RequestParam Long categoryId) {
-        //构造redis中的key  dish_分类id
-        String key = "dish_" + categoryId;
+        //依次查询本地缓存、redis，均不存在时查询数据库并写入缓存，redis中的key为 dish_分类id
+        Cache cache = cacheManager.getCache(CacheConstant.DISH_CACHE);
 
-        //查询redis中是否存在菜品数据
-        List<DishVO> list = (List<DishVO>) redisTemplate.opsForValue().get(key);
-        //判断是否存在数据
-        if (list != null && list.size() > 0) {
-            //存在数据，直接返回，无需查询数据库
-            return Result.success(list);
-        }
+        List<DishVO> list = cache.get(categoryId, () -> {
+            Dish dish = new Dish();
+            dish.setCategoryId(categoryId);
+            dish.setStatus(StatusConstant.ENABLE);//查询起售中的菜品
 
-
-        Dish dish = new Dish();
-        dish.setCategoryId(categoryId);
-        dish.setStatus(StatusConstant.ENABLE);//查询起售中的菜品
-
-        list = dishService.listWithFlavor(dish);
-
-        //如不存在，将查询后的数据存入redis中
-        redisTemplate.opsForValue().set(key, list);
+            return dishService.listWithFlavor(dish);
+        });
 
 
         return Result.success(list);
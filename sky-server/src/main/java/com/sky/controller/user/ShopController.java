@@ -1,11 +1,11 @@
 package com.sky.controller.user;
 
 import com.sky.result.Result;
+import com.sky.service.ShopService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.web.bind.annotation.*;
 
 @RestController("userShopController")
@@ -14,9 +14,8 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class ShopController {
 
-    public static final String KEY="SHOP_STATUS";
     @Autowired
-    private RedisTemplate redisTemplate;
+    private ShopService shopService;
 
 
     /**
@@ -27,7 +26,7 @@ public class ShopController {
     @ApiOperation("查询店铺营业状态")
     public Result<Integer> getStatus() {
 
-        Integer shopStatus = (Integer) redisTemplate.opsForValue().get(KEY);
+        Integer shopStatus = shopService.getStatus();
 
 
         return Result.success(shopStatus);
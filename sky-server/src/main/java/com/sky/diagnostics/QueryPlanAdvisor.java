@@ -0,0 +1,56 @@
+package com.sky.diagnostics;
+
+import com.sky.properties.QueryPlanProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * mapper语句执行计划检查
+ * 开启 sky.query-plan.check-on-startup 时，启动完成后对所有查询、修改、删除语句执行EXPLAIN，
+ * 报告数据量较大的全表扫描以及无法检查的语句；开启 fail-on-full-scan 时直接启动失败
+ * 测试中由QueryPlanInspectorTest导入模拟数据后检查常用语句
+ */
+@Component
+@Slf4j
+public class QueryPlanAdvisor {
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private QueryPlanProperties queryPlanProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        if (!queryPlanProperties.isCheckOnStartup()) {
+            return;
+        }
+
+        QueryPlanInspector inspector = new QueryPlanInspector(queryPlanProperties.getFullScanRows(),
+                queryPlanProperties.getIgnoredStatements());
+        QueryPlanInspector.Report report;
+        try (Connection connection = dataSource.getConnection()) {
+            report = inspector.inspect(sqlSessionFactory.getConfiguration(), connection);
+        } catch (Exception e) {
+            log.warn("执行计划检查失败：{}", e.getMessage());
+            return;
+        }
+
+        report.getFailures().forEach((id, message) -> log.warn("无法检查语句{}的执行计划：{}", id, message));
+        report.getFullScans().forEach((id, tables) -> log.warn("全表扫描：{}，{}", id, tables));
+        log.info("执行计划检查完成，共检查{}条语句，{}条语句存在全表扫描，{}条语句无法检查",
+                report.getChecked().size(), report.getFullScans().size(), report.getFailures().size());
+
+        if (queryPlanProperties.isFailOnFullScan() && !report.getFullScans().isEmpty()) {
+            throw new IllegalStateException("存在" + report.getFullScans().size() + "条全表扫描的语句：" + report.getFullScans().keySet());
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.sky.diagnostics;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 对mapper中的查询、修改、删除语句执行EXPLAIN，找出数据量较大的全表扫描
+ * 支持MySQL以及MySQL模式的H2：MySQL按EXPLAIN的type和预估行数判断，H2按执行计划中的tableScan和表的实际行数判断
+ */
+public class QueryPlanInspector {
+
+    //H2执行计划中的全表扫描，例如 /* PUBLIC.ORDERS.tableScan */
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile("/\\*\\s*([\\w.\"]+)\\.tableScan", Pattern.CASE_INSENSITIVE);
+
+    private final long fullScanRows;
+
+    private final Collection<String> ignoredStatements;
+
+    public QueryPlanInspector(long fullScanRows, Collection<String> ignoredStatements) {
+        this.fullScanRows = fullScanRows;
+        this.ignoredStatements = ignoredStatements;
+    }
+
+    /**
+     * 检查全部语句的执行计划
+     *
+     * @param configuration mybatis配置
+     * @param connection
+     * @return
+     * @throws Exception 数据库不是MySQL或H2
+     */
+    public Report inspect(Configuration configuration, Connection connection) throws Exception {
+        String product = connection.getMetaData().getDatabaseProductName();
+        boolean h2 = "H2".equalsIgnoreCase(product);
+        if (!h2 && !"MySQL".equalsIgnoreCase(product)) {
+            throw new IllegalStateException("执行计划检查只支持MySQL和H2，当前数据库：" + product);
+        }
+
+        Report report = new Report();
+        Map<String, Long> tableRows = new HashMap<>();
+
+        //同一语句以全限定名和简称各注册一次，只取全限定名；跳过selectKey等内部语句
+        for (String id : new TreeSet<>(configuration.getMappedStatementNames())) {
+            if (!id.contains(".") || id.contains("!") || ignoredStatements.contains(id)) {
+                continue;
+            }
+            MappedStatement statement = configuration.getMappedStatement(id, false);
+            SqlCommandType type = statement.getSqlCommandType();
+            if (type != SqlCommandType.SELECT && type != SqlCommandType.UPDATE && type != SqlCommandType.DELETE) {
+                continue;
+            }
+
+            try {
+                List<String> fullScans = h2
+                        ? explainH2(connection, statement, tableRows)
+                        : explainMySQL(connection, statement);
+                report.checked.add(id);
+                if (!fullScans.isEmpty()) {
+                    report.fullScans.put(id, fullScans);
+                }
+            } catch (Exception e) {
+                report.failures.put(id, e.getMessage());
+            }
+        }
+        return report;
+    }
+
+    private List<String> explainMySQL(Connection connection, MappedStatement statement) throws Exception {
+        List<String> fullScans = new ArrayList<>();
+        try (PreparedStatement ps = prepareExplain(connection, statement);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                long rows = rs.getLong("rows");
+                if ("ALL".equalsIgnoreCase(rs.getString("type")) && rows >= fullScanRows) {
+                    fullScans.add("表" + rs.getString("table") + "，预估" + rows + "行");
+                }
+            }
+        }
+        return fullScans;
+    }
+
+    private List<String> explainH2(Connection connection, MappedStatement statement, Map<String, Long> tableRows) throws Exception {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement ps = prepareExplain(connection, statement);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+
+        List<String> fullScans = new ArrayList<>();
+        Matcher matcher = H2_TABLE_SCAN.matcher(plan);
+        while (matcher.find()) {
+            String name = matcher.group(1).replace("\"", "");
+            String table = name.substring(name.lastIndexOf('.') + 1);
+            long rows = tableRows.computeIfAbsent(table.toLowerCase(), key -> countRows(connection, key));
+            if (rows >= fullScanRows) {
+                fullScans.add("表" + table + "，共" + rows + "行");
+            }
+        }
+        return fullScans;
+    }
+
+    /**
+     * 生成EXPLAIN语句，动态条件全部生效
+     * 参数名以time、date、begin、end结尾的使用当前时间，分页参数使用数字1，其余使用字符串"1"：
+     * 字符串与数字列比较时数据库会转换参数，仍可使用索引；反之数字与字符串列比较时会转换列值，导致误报全表扫描
+     */
+    private PreparedStatement prepareExplain(Connection connection, MappedStatement statement) throws Exception {
+        BoundSql boundSql = statement.getBoundSql(new SampleParameter());
+        PreparedStatement ps = connection.prepareStatement("explain " + boundSql.getSql());
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        for (int i = 0; i < parameterMappings.size(); i++) {
+            ps.setObject(i + 1, sampleValue(parameterMappings.get(i).getProperty()));
+        }
+        return ps;
+    }
+
+    private Object sampleValue(String property) {
+        String name = property.toLowerCase();
+        if (name.endsWith("time") || name.endsWith("date") || name.endsWith("begin") || name.endsWith("end")) {
+            return Timestamp.valueOf(LocalDateTime.now());
+        }
+        if (name.endsWith("limit") || name.endsWith("offset") || name.endsWith("size")) {
+            return 1;
+        }
+        return "1";
+    }
+
+    private long countRows(Connection connection, String table) {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select count(*) from " + table)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (Exception e) {
+            //无法统计时按大表处理
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 检查结果
+     */
+    public static class Report {
+
+        //已检查的语句
+        private final List<String> checked = new ArrayList<>();
+
+        //存在全表扫描的语句及扫描的表
+        private final Map<String, List<String>> fullScans = new LinkedHashMap<>();
+
+        //无法执行EXPLAIN的语句及原因
+        private final Map<String, String> failures = new LinkedHashMap<>();
+
+        public List<String> getChecked() {
+            return checked;
+        }
+
+        public Map<String, List<String>> getFullScans() {
+            return fullScans;
+        }
+
+        public Map<String, String> getFailures() {
+            return failures;
+        }
+    }
+
+    /**
+     * 模拟的语句参数，任何属性都不为空，集合参数只有一个元素，使所有动态条件都生效
+     */
+    private static class SampleParameter extends HashMap<String, Object> implements Iterable<Object> {
+
+        @Override
+        public Object get(Object key) {
+            return new SampleParameter();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return true;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return Collections.<Object>singletonList(1).iterator();
+        }
+    }
+}
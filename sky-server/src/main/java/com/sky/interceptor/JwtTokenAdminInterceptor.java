@@ -3,14 +3,13 @@ package com.sky.interceptor;
 import com.sky.constant.JwtClaimsConstant;
 import com.sky.context.BaseContext;
 import com.sky.properties.JwtProperties;
-import com.sky.utils.JwtUtil;
-import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -24,6 +23,14 @@ public class JwtTokenAdminInterceptor implements HandlerInterceptor {
     @Autowired
     private JwtProperties jwtProperties;
 
+    private JwtTokenVerifier jwtTokenVerifier;
+
+    @PostConstruct
+    public void init() {
+        jwtTokenVerifier = new JwtTokenVerifier(jwtProperties.getAdminSecretKey(), JwtClaimsConstant.EMP_ID,
+                jwtProperties.getVerifiedCacheSize(), jwtProperties.getVerifiedCacheSeconds());
+    }
+
     /**
      * 校验jwt
      *
@@ -45,10 +52,8 @@ public class JwtTokenAdminInterceptor implements HandlerInterceptor {
 
         //2、校验令牌
         try {
-            log.info("jwt校验:{}", token);
-            Claims claims = JwtUtil.parseJWT(jwtProperties.getAdminSecretKey(), token);
-            Long empId = Long.valueOf(claims.get(JwtClaimsConstant.EMP_ID).toString());
-            log.info("当前员工id:{}", empId);
+            Long empId = jwtTokenVerifier.verify(token);
+            log.debug("当前员工id:{}", empId);
             BaseContext.setCurrentId(empId);
             //3、通过，放行
             return true;
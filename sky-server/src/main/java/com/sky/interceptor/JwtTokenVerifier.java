@@ -0,0 +1,99 @@
+package com.sky.interceptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sky.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * jwt令牌校验，校验通过的令牌缓存在本地，同一个令牌再次请求时不再验签和解析
+ * 缓存时间取配置的最长缓存时间和令牌剩余有效期中较小的一个，令牌过期后不会继续通过校验；
+ * 只缓存校验通过的令牌，伪造或过期的令牌每次都重新校验
+ */
+public class JwtTokenVerifier {
+
+    //预先生成的签名秘钥
+    private final Key signingKey;
+
+    //令牌中保存id的声明名称
+    private final String idClaim;
+
+    //key为令牌本身
+    private final Cache<String, VerifiedToken> verifiedCache;
+
+    public JwtTokenVerifier(String secretKey, String idClaim, long maximumSize, long expireSeconds) {
+        this.signingKey = JwtUtil.getSigningKey(secretKey);
+        this.idClaim = idClaim;
+        long maxExpireNanos = TimeUnit.SECONDS.toNanos(expireSeconds);
+        this.verifiedCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verifiedToken, long currentTime) {
+                        long remainMillis = verifiedToken.expireAt - System.currentTimeMillis();
+                        if (remainMillis >= TimeUnit.NANOSECONDS.toMillis(maxExpireNanos)) {
+                            return maxExpireNanos;
+                        }
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+                        return expireAfterCreate(token, verifiedToken, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 校验令牌
+     *
+     * @param token
+     * @return 令牌中的id
+     * @throws RuntimeException 令牌为空、签名不正确或者已过期
+     */
+    public Long verify(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("jwt令牌为空");
+        }
+
+        VerifiedToken verifiedToken = verifiedCache.getIfPresent(token);
+        //缓存按过期时间淘汰存在延迟，命中时仍检查令牌本身是否过期
+        if (verifiedToken != null && verifiedToken.expireAt > System.currentTimeMillis()) {
+            return verifiedToken.id;
+        }
+
+        Claims claims = JwtUtil.parseJWT(signingKey, token);
+        Long id = Long.valueOf(claims.get(idClaim).toString());
+        Date expiration = claims.getExpiration();
+        long expireAt = expiration == null ? Long.MAX_VALUE : expiration.getTime();
+        verifiedCache.put(token, new VerifiedToken(id, expireAt));
+        return id;
+    }
+
+    /**
+     * 校验通过的令牌
+     */
+    private static class VerifiedToken {
+
+        private final Long id;
+
+        //令牌的过期时间(毫秒)
+        private final long expireAt;
+
+        private VerifiedToken(Long id, long expireAt) {
+            this.id = id;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.sky.lease;
+
+import com.sky.properties.LeaderProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 定时任务主节点选举
+ * 各节点定时竞争同一个租约，持有租约的节点为主节点并定时续约；主节点宕机或续约失败后，租约到期由其他节点接替
+ * 续约在独立的线程中执行，不受定时任务执行时间的影响
+ */
+@Component
+@Slf4j
+public class LeaderElection {
+
+    //当前节点id，作为租约的持有者标识
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Autowired
+    private LeaseStore leaseStore;
+    @Autowired
+    private LeaderProperties leaderProperties;
+
+    private volatile boolean leader;
+
+    //本地记录的租约到期时间，超过该时间未续约成功时不再认为自己是主节点
+    private volatile long leaseDeadline;
+
+    //成为主节点的次数
+    private final AtomicLong acquisitions = new AtomicLong();
+    //续约成功的次数
+    private final AtomicLong renewals = new AtomicLong();
+    //续约或竞选时访问租约存储失败的次数
+    private final AtomicLong renewFailures = new AtomicLong();
+    //失去主节点身份的次数
+    private final AtomicLong losses = new AtomicLong();
+    //非主节点跳过定时任务的次数
+    private final AtomicLong skippedRuns = new AtomicLong();
+
+    private final ScheduledExecutorService heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leader-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat,
+                0, leaderProperties.getRenewInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeatExecutor.shutdownNow();
+        if (leader) {
+            leader = false;
+            try {
+                //主动释放租约，其他节点无需等待租约到期即可接替
+                leaseStore.release(leaderProperties.getLeaseName(), nodeId);
+            } catch (Exception e) {
+                log.warn("释放主节点租约失败：{}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 当前节点是否为主节点
+     *
+     * @return
+     */
+    public boolean isLeader() {
+        return leader && System.currentTimeMillis() < leaseDeadline;
+    }
+
+    public void recordSkippedRun() {
+        skippedRuns.incrementAndGet();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.get();
+    }
+
+    public long getRenewals() {
+        return renewals.get();
+    }
+
+    public long getRenewFailures() {
+        return renewFailures.get();
+    }
+
+    public long getLosses() {
+        return losses.get();
+    }
+
+    public long getSkippedRuns() {
+        return skippedRuns.get();
+    }
+
+    /**
+     * 主节点续约，其他节点竞选
+     */
+    private void heartbeat() {
+        String leaseName = leaderProperties.getLeaseName();
+        long leaseMillis = leaderProperties.getLeaseMillis();
+        //以发起请求的时间计算到期时间，保证本地判断早于租约在存储中实际过期
+        long start = System.currentTimeMillis();
+
+        try {
+            if (leader) {
+                if (leaseStore.renew(leaseName, nodeId, leaseMillis)) {
+                    leaseDeadline = start + leaseMillis;
+                    renewals.incrementAndGet();
+                    return;
+                }
+                leader = false;
+                losses.incrementAndGet();
+                log.warn("主节点租约已失效，节点{}不再执行定时任务，累计失去{}次", nodeId, losses.get());
+            }
+
+            if (leaseStore.tryAcquire(leaseName, nodeId, leaseMillis)) {
+                leaseDeadline = start + leaseMillis;
+                leader = true;
+                acquisitions.incrementAndGet();
+                log.info("节点{}成为定时任务主节点，累计成为主节点{}次，跳过定时任务{}次",
+                        nodeId, acquisitions.get(), skippedRuns.get());
+            }
+        } catch (Exception e) {
+            //访问失败时保持当前状态，主节点在本地租约到期后自动停止执行
+            renewFailures.incrementAndGet();
+            log.warn("主节点续约或竞选失败，累计失败{}次：{}", renewFailures.get(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.sky.lease;
+
+/**
+ * 租约存储，同一名称的租约同一时间只能被一个持有者持有，到期未续约自动释放
+ */
+public interface LeaseStore {
+
+    /**
+     * 尝试获取租约
+     *
+     * @param name       租约名称
+     * @param owner      持有者标识
+     * @param leaseMillis 租约时长(毫秒)
+     * @return 是否获取成功
+     */
+    boolean tryAcquire(String name, String owner, long leaseMillis);
+
+    /**
+     * 续约，只有当前持有者可以续约
+     *
+     * @param name
+     * @param owner
+     * @param leaseMillis
+     * @return 租约已过期或已被他人持有时返回false
+     */
+    boolean renew(String name, String owner, long leaseMillis);
+
+    /**
+     * 释放租约，只有当前持有者可以释放
+     *
+     * @param name
+     * @param owner
+     */
+    void release(String name, String owner);
+}
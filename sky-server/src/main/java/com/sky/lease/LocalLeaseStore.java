@@ -0,0 +1,49 @@
+package com.sky.lease;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于本地内存的租约存储，只在单节点部署或测试环境中使用，sky.leader.store=local 时生效
+ */
+@Component
+@ConditionalOnProperty(prefix = "sky.leader", name = "store", havingValue = "local")
+public class LocalLeaseStore implements LeaseStore {
+
+    private final ConcurrentHashMap<String, Lease> leaseMap = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean tryAcquire(String name, String owner, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        Lease lease = leaseMap.compute(name, (key, current) ->
+                current == null || current.expireAt <= now ? new Lease(owner, now + leaseMillis) : current);
+        return owner.equals(lease.owner);
+    }
+
+    @Override
+    public boolean renew(String name, String owner, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        Lease lease = leaseMap.computeIfPresent(name, (key, current) ->
+                owner.equals(current.owner) && current.expireAt > now ? new Lease(owner, now + leaseMillis) : current);
+        return lease != null && owner.equals(lease.owner) && lease.expireAt > now;
+    }
+
+    @Override
+    public void release(String name, String owner) {
+        leaseMap.computeIfPresent(name, (key, current) -> owner.equals(current.owner) ? null : current);
+    }
+
+    private static class Lease {
+
+        private final String owner;
+
+        private final long expireAt;
+
+        private Lease(String owner, long expireAt) {
+            this.owner = owner;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.sky.lease;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于redis的租约存储，通过 SET NX PX 获取租约，续约和释放时校验持有者
+ */
+@Component
+@ConditionalOnProperty(prefix = "sky.leader", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisLeaseStore implements LeaseStore {
+
+    //租约在redis中的key为 lease:租约名称
+    private static final String KEY_PREFIX = "lease:";
+
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public boolean tryAcquire(String name, String owner, long leaseMillis) {
+        Boolean acquired = stringRedisTemplate.opsForValue()
+                .setIfAbsent(KEY_PREFIX + name, owner, leaseMillis, TimeUnit.MILLISECONDS);
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    @Override
+    public boolean renew(String name, String owner, long leaseMillis) {
+        Long result = stringRedisTemplate.execute(RENEW_SCRIPT,
+                Collections.singletonList(KEY_PREFIX + name), owner, String.valueOf(leaseMillis));
+        return result != null && result == 1;
+    }
+
+    @Override
+    public void release(String name, String owner) {
+        stringRedisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(KEY_PREFIX + name), owner);
+    }
+}
@@ -43,6 +43,14 @@ public interface DishFlavorMapper {
     @Select("select * from dish_flavor where dish_id=#{dishId}")
     List<DishFlavor> getByDishId(Long dishId);
 
+    /**
+     * 根据菜品id集合批量查询口味数据
+     *
+     * @param dishIds
+     * @return
+     */
+    List<DishFlavor> getByDishIds(List<Long> dishIds);
+
     /**
      * 根据id动态修改菜品信息
      * @param dish
@@ -88,5 +88,12 @@ public interface DishMapper {
          */
         Integer countByMap(Map map);
 
+    /**
+     * 根据菜品id集合查询菜品所属的分类id
+     * @param ids
+     * @return
+     */
+    List<Long> getCategoryIdsByIds(List<Long> ids);
+
 
 }
@@ -4,7 +4,6 @@ import com.sky.entity.OrderDetail;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Select;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Mapper
@@ -13,7 +12,7 @@ public interface OrderDetailMapper {
      * 批量插入订单明细数据
      * @param orderDetailArrayList
      */
-    void insertBatch(ArrayList<OrderDetail> orderDetailArrayList);
+    void insertBatch(List<OrderDetail> orderDetailArrayList);
 
     /**
      * 根据订单id查询明细
@@ -21,4 +20,11 @@ public interface OrderDetailMapper {
      */
     @Select("select * from order_detail where order_id=#{orderId}")
     List<OrderDetail> getByOrderId(Long orderId);
+
+    /**
+     * 根据订单id集合批量查询明细
+     * @param orderIds
+     * @return
+     */
+    List<OrderDetail> getByOrderIds(List<Long> orderIds);
 }
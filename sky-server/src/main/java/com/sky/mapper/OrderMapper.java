@@ -1,10 +1,12 @@
 package com.sky.mapper;
 
 import com.github.pagehelper.Page;
-import com.sky.dto.GoodsSalesDTO;
+import com.sky.dto.OrderDailyStatisticsDTO;
+import com.sky.dto.OrderStatusCountDTO;
 import com.sky.dto.OrdersPageQueryDTO;
 import com.sky.entity.Orders;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
 import java.time.LocalDateTime;
@@ -33,13 +35,48 @@ public interface OrderMapper {
     void update(Orders orders);
 
     /**
-     * 根据订单状态和下单时间查询订单
+     * 根据订单状态和下单时间分批查询订单id和下单时间
      * @param status
      * @param orderTime
+     * @param limit 每批最多查询的条数
      * @return
      */
-    @Select("select *from orders where status=#{status} and order_time<#{orderTime}")
-    List<Orders> getByStatusAndOrderTimeLT(Integer status, LocalDateTime orderTime);
+    @Select("select id, order_time from orders where status=#{status} and order_time<#{orderTime} order by id limit #{limit}")
+    List<Orders> getIdsByStatusAndOrderTimeLT(@Param("status") Integer status,
+                                              @Param("orderTime") LocalDateTime orderTime,
+                                              @Param("limit") int limit);
+
+    /**
+     * 根据订单状态按id分批查询订单id和下单时间
+     * @param status
+     * @param lastId 上一批最大的订单id
+     * @param limit 每批最多查询的条数
+     * @return
+     */
+    @Select("select id, order_time from orders where status=#{status} and id>#{lastId} order by id limit #{limit}")
+    List<Orders> getIdsByStatusAndIdGT(@Param("status") Integer status,
+                                       @Param("lastId") Long lastId,
+                                       @Param("limit") int limit);
+
+    /**
+     * 批量修改订单状态，只修改仍处于原状态的订单
+     * 单个订单的状态流转也使用此方法，只有实际修改成功时才更新订单状态计数
+     * @param ids
+     * @param fromStatus 原状态
+     * @param orders 修改后的状态及取消原因、支付状态等信息
+     * @return 实际修改的条数
+     */
+    int updateStatusByIds(@Param("ids") List<Long> ids,
+                          @Param("fromStatus") Integer fromStatus,
+                          @Param("orders") Orders orders);
+
+    /**
+     * 查询id集合中处于指定状态的订单id
+     * @param ids
+     * @param status
+     * @return
+     */
+    List<Long> getIdsByIdsAndStatus(@Param("ids") List<Long> ids, @Param("status") Integer status);
 
     /**
      * 分页条件查询并按下单时间排序
@@ -54,12 +91,6 @@ public interface OrderMapper {
      */
     @Select("select * from orders where id=#{id}")
     Orders getById(Long id);
-    /**
-     * 根据状态统计订单数量
-     * @param status
-     */
-    @Select("select count(id) from orders where status=#{status}")
-    Integer countStatus(Integer status);
 
 
     /**
@@ -77,11 +108,17 @@ public interface OrderMapper {
     Integer countByMap(Map map);
 
     /**
-     * 统计指定时间内销量排名TOP10
-     * @param begin
-     * @param end
+     * 按下单日期分组统计营业额、订单总数和有效订单数
+     * @param map begin、end为时间区间，status为有效订单状态
+     * @return
+     */
+    List<OrderDailyStatisticsDTO> statisticsByDate(Map map);
+
+    /**
+     * 按订单状态分组统计订单数量
+     * @param begin 下单时间的起点，为空时统计全部订单
      * @return
      */
-    List<GoodsSalesDTO> getSalesTop10(LocalDateTime begin,LocalDateTime end);
+    List<OrderStatusCountDTO> countGroupByStatus(@Param("begin") LocalDateTime begin);
 
 }
@@ -0,0 +1,43 @@
+package com.sky.mapper;
+
+import com.sky.entity.SalesDailyRollup;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Mapper
+public interface SalesDailyRollupMapper {
+
+    /**
+     * 将已完成订单的商品销量累加到每日汇总
+     * @param orderIds
+     */
+    void upsertByOrderIds(@Param("orderIds") List<Long> orderIds);
+
+    /**
+     * 删除指定日期的汇总数据
+     * @param saleDate
+     */
+    @Delete("delete from sales_daily_rollup where sale_date = #{saleDate}")
+    void deleteBySaleDate(LocalDate saleDate);
+
+    /**
+     * 根据订单表重新汇总指定日期的销量
+     * @param saleDate
+     * @param status 已完成状态
+     */
+    void insertBySaleDate(@Param("saleDate") LocalDate saleDate, @Param("status") Integer status);
+
+    /**
+     * 查询日期区间内的汇总数据
+     * @param begin
+     * @param end
+     * @return
+     */
+    @Select("select * from sales_daily_rollup where sale_date between #{begin} and #{end}")
+    List<SalesDailyRollup> listBySaleDate(@Param("begin") LocalDate begin, @Param("end") LocalDate end);
+}
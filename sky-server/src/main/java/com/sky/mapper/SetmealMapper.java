@@ -8,6 +8,7 @@ import com.sky.enumeration.OperationType;
 import com.sky.vo.DishItemVO;
 import com.sky.vo.SetmealVO;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
@@ -92,4 +93,19 @@ public interface SetmealMapper {
      * @return
      */
     Integer countByMap(Map map);
+
+    /**
+     * 批量修改套餐状态，只修改状态不同的套餐
+     * @param ids
+     * @param setmeal 修改后的状态及修改时间、修改人
+     * @return 实际修改的条数
+     */
+    int updateStatusByIds(@Param("ids") List<Long> ids, @Param("setmeal") Setmeal setmeal);
+
+    /**
+     * 根据套餐id集合查询套餐所属的分类id
+     * @param ids
+     * @return
+     */
+    List<Long> getCategoryIdsByIds(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,79 @@
+package com.sky.pricing;
+
+import com.sky.constant.MessageConstant;
+import com.sky.dto.OrderPriceDTO;
+import com.sky.entity.OrderDetail;
+import com.sky.entity.ShoppingCart;
+import com.sky.exception.OrderBusinessException;
+import com.sky.properties.PricingProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 订单价格计算
+ * 按价格索引中的当前价格重新计算购物车中每个商品的金额，一次遍历得到商品金额、打包费、配送费和订单总金额，
+ * 不信任客户端提交的金额，也不再逐个查询数据库
+ */
+@Component
+public class OrderPriceCalculator {
+
+    @Autowired
+    private PriceIndex priceIndex;
+    @Autowired
+    private PricingProperties pricingProperties;
+
+    /**
+     * 计算购物车的订单价格
+     *
+     * @param shoppingCartList
+     * @return
+     */
+    public OrderPriceDTO calculate(List<ShoppingCart> shoppingCartList) {
+        //整个订单使用同一份价格快照
+        PriceIndex.Snapshot snapshot = priceIndex.current();
+
+        BigDecimal itemAmount = BigDecimal.ZERO;
+        int itemCount = 0;
+        List<OrderDetail> orderDetailList = new ArrayList<>(shoppingCartList.size());
+
+        for (ShoppingCart cart : shoppingCartList) {
+            BigDecimal price = cart.getDishId() != null
+                    ? snapshot.getDishPrice(cart.getDishId())
+                    : snapshot.getSetmealPrice(cart.getSetmealId());
+            if (price == null) {
+                throw new OrderBusinessException(MessageConstant.SHOPPING_CART_ITEM_OFF_SALE);
+            }
+
+            int number = cart.getNumber();
+            itemAmount = itemAmount.add(price.multiply(BigDecimal.valueOf(number)));
+            itemCount += number;
+
+            //订单明细中保存下单时的单价
+            orderDetailList.add(OrderDetail.builder()
+                    .name(cart.getName())
+                    .image(cart.getImage())
+                    .dishId(cart.getDishId())
+                    .setmealId(cart.getSetmealId())
+                    .dishFlavor(cart.getDishFlavor())
+                    .number(number)
+                    .amount(price)
+                    .build());
+        }
+
+        int packAmount = itemCount * pricingProperties.getPackFee();
+        BigDecimal deliveryFee = pricingProperties.getDeliveryFee();
+
+        return OrderPriceDTO.builder()
+                .itemAmount(itemAmount)
+                .packAmount(packAmount)
+                .deliveryFee(deliveryFee)
+                .amount(itemAmount.add(BigDecimal.valueOf(packAmount)).add(deliveryFee))
+                .itemCount(itemCount)
+                .orderDetailList(orderDetailList)
+                .build();
+    }
+}
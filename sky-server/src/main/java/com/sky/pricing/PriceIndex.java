@@ -0,0 +1,164 @@
+package com.sky.pricing;
+
+import com.sky.cache.TwoLevelCacheManager;
+import com.sky.constant.CacheConstant;
+import com.sky.constant.StatusConstant;
+import com.sky.entity.Dish;
+import com.sky.entity.Setmeal;
+import com.sky.mapper.DishMapper;
+import com.sky.mapper.SetmealMapper;
+import com.sky.properties.PricingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 商品价格索引
+ * 在内存中保存所有起售中的菜品和套餐的价格，下单时直接按id取价，不再逐个查询数据库；
+ * 后台修改菜品或套餐后失效，其他节点的修改通过缓存失效通知感知，下次读取时重新加载
+ */
+@Component
+@Slf4j
+public class PriceIndex implements MessageListener {
+
+    @Autowired
+    private DishMapper dishMapper;
+    @Autowired
+    private SetmealMapper setmealMapper;
+    @Autowired
+    private PricingProperties pricingProperties;
+
+    private volatile Snapshot snapshot;
+
+    //每次失效加一，加载期间发生失效时不保存加载结果
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 获取当前的价格快照，不存在或已过期时重新加载
+     *
+     * @return
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && !current.isExpired()) {
+                return current;
+            }
+            long loadVersion = version.get();
+            current = load();
+            if (version.get() == loadVersion) {
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * 菜品或套餐被修改后使价格索引失效，存在事务时在事务提交后失效
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate();
+                }
+            });
+        } else {
+            doInvalidate();
+        }
+    }
+
+    /**
+     * 收到菜品或套餐缓存的失效通知时，使价格索引失效
+     *
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String cacheName = TwoLevelCacheManager.getCacheName(message);
+        if (CacheConstant.DISH_CACHE.equals(cacheName) || CacheConstant.SETMEAL_CACHE.equals(cacheName)) {
+            doInvalidate();
+        }
+    }
+
+    private void doInvalidate() {
+        version.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot load() {
+        Map<Long, BigDecimal> dishPrices = new HashMap<>();
+        List<Dish> dishList = dishMapper.list(Dish.builder().status(StatusConstant.ENABLE).build());
+        for (Dish dish : dishList) {
+            dishPrices.put(dish.getId(), dish.getPrice());
+        }
+
+        Map<Long, BigDecimal> setmealPrices = new HashMap<>();
+        List<Setmeal> setmealList = setmealMapper.list(Setmeal.builder().status(StatusConstant.ENABLE).build());
+        for (Setmeal setmeal : setmealList) {
+            setmealPrices.put(setmeal.getId(), setmeal.getPrice());
+        }
+
+        log.info("加载商品价格索引，菜品{}个，套餐{}个", dishPrices.size(), setmealPrices.size());
+        long expireAt = System.currentTimeMillis() + pricingProperties.getIndexExpireSeconds() * 1000;
+        return new Snapshot(dishPrices, setmealPrices, expireAt);
+    }
+
+    /**
+     * 价格快照，加载后不再修改
+     */
+    public static class Snapshot {
+
+        private final Map<Long, BigDecimal> dishPrices;
+
+        private final Map<Long, BigDecimal> setmealPrices;
+
+        private final long expireAt;
+
+        private Snapshot(Map<Long, BigDecimal> dishPrices, Map<Long, BigDecimal> setmealPrices, long expireAt) {
+            this.dishPrices = dishPrices;
+            this.setmealPrices = setmealPrices;
+            this.expireAt = expireAt;
+        }
+
+        /**
+         * 查询起售中菜品的价格
+         *
+         * @param dishId
+         * @return 菜品不存在或已停售时返回null
+         */
+        public BigDecimal getDishPrice(Long dishId) {
+            return dishPrices.get(dishId);
+        }
+
+        /**
+         * 查询起售中套餐的价格
+         *
+         * @param setmealId
+         * @return 套餐不存在或已停售时返回null
+         */
+        public BigDecimal getSetmealPrice(Long setmealId) {
+            return setmealPrices.get(setmealId);
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expireAt;
+        }
+    }
+}
@@ -70,6 +70,15 @@ public interface DishService {
      * 菜品起售停售
      * @param status
      * @param id
+     * @return 停售菜品时被一起停售的套餐所属的分类id
      */
-    void saleOrNotSale(Integer status, Long id);
+    List<Long> saleOrNotSale(Integer status, Long id);
+
+    /**
+     * 根据菜品id集合查询菜品所属的分类id
+     *
+     * @param ids
+     * @return
+     */
+    List<Long> getCategoryIdsByIds(List<Long> ids);
 }
@@ -45,9 +45,25 @@ public interface ReportService {
      * @return
      */
     SalesTop10ReportVO getSalesTop10(LocalDate beginTime, LocalDate endTime);
+
+    /**
+     * 统计最近几小时的实时销量排名TOP10
+     *
+     * @param hours 1~24
+     * @return
+     */
+    SalesTop10ReportVO getRealtimeSalesTop10(int hours);
     /**
      * 导出运营数据报表
      * @param response
      */
     void exportBusinessData(HttpServletResponse response);
+
+    /**
+     * 导出指定时间区间内的运营数据报表
+     * @param beginTime
+     * @param endTime
+     * @param response
+     */
+    void exportBusinessData(LocalDate beginTime, LocalDate endTime, HttpServletResponse response);
 }
@@ -0,0 +1,25 @@
+package com.sky.service;
+
+public interface ShopService {
+
+    /**
+     * 设置店铺营业状态
+     *
+     * @param status
+     */
+    void setStatus(Integer status);
+
+    /**
+     * 查询店铺营业状态
+     *
+     * @return 未设置过营业状态时返回null
+     */
+    Integer getStatus();
+
+    /**
+     * 店铺是否已打烊，只有明确设置为打烊时返回true
+     *
+     * @return
+     */
+    boolean isClosed();
+}
@@ -31,4 +31,26 @@ public interface ShoppingCartService {
      * @return
      */
     void sub(ShoppingCartDTO shoppingCartDTO);
+
+    /**
+     * 查询指定用户的购物车
+     *
+     * @param userId
+     * @return
+     */
+    List<ShoppingCart> listByUserId(Long userId);
+
+    /**
+     * 清空指定用户的购物车
+     *
+     * @param userId
+     */
+    void cleanByUserId(Long userId);
+
+    /**
+     * 批量加入购物车，已存在的商品累加数量
+     *
+     * @param shoppingCartList
+     */
+    void addBatch(List<ShoppingCart> shoppingCartList);
 }
@@ -4,6 +4,7 @@ import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.StatusConstant;
+import com.sky.context.BaseContext;
 import com.sky.dto.DishDTO;
 import com.sky.dto.DishPageQueryDTO;
 import com.sky.entity.Dish;
@@ -14,6 +15,7 @@ import com.sky.mapper.DishFlavorMapper;
 import com.sky.mapper.DishMapper;
 import com.sky.mapper.SetMealDishMapper;
 import com.sky.mapper.SetmealMapper;
+import com.sky.pricing.PriceIndex;
 import com.sky.result.PageResult;
 import com.sky.service.DishService;
 import com.sky.vo.DishVO;
@@ -22,9 +24,15 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.CollectionUtils;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -36,6 +44,8 @@ public class DishServiceImpl implements DishService {
     private DishFlavorMapper dishFlavorMapper;
     @Autowired
     private SetMealDishMapper setMealDishMapper;
+    @Autowired
+    private PriceIndex priceIndex;
 
 
     @Autowired
@@ -71,6 +81,7 @@ public class DishServiceImpl implements DishService {
 
         }
 
+        priceIndex.invalidate();
     }
 
     /**
@@ -188,6 +199,8 @@ public class DishServiceImpl implements DishService {
 
         }
 
+        //菜品价格可能已修改
+        priceIndex.invalidate();
     }
 
     /**
@@ -216,53 +229,88 @@ public class DishServiceImpl implements DishService {
     public List<DishVO> listWithFlavor(Dish dish) {
         List<Dish> dishList = dishMapper.list(dish);
 
+        //一次查询出所有菜品的口味，按菜品id分组
+        Map<Long, List<DishFlavor>> dishFlavorMap = getDishFlavorMap(dishList);
+
         List<DishVO> dishVOList = new ArrayList<>();
 
         for (Dish d : dishList) {
             DishVO dishVO = new DishVO();
             BeanUtils.copyProperties(d, dishVO);
 
-            //根据菜品id查询对应的口味
-            List<DishFlavor> flavors = dishFlavorMapper.getByDishId(d.getId());
-
-            dishVO.setFlavors(flavors);
+            dishVO.setFlavors(dishFlavorMap.getOrDefault(d.getId(), new ArrayList<>()));
             dishVOList.add(dishVO);
         }
 
         return dishVOList;
     }
 
+    /**
+     * 批量查询菜品口味，并按菜品id分组
+     *
+     * @param dishList
+     * @return
+     */
+    private Map<Long, List<DishFlavor>> getDishFlavorMap(List<Dish> dishList) {
+        if (CollectionUtils.isEmpty(dishList)) {
+            return new HashMap<>();
+        }
+
+        List<Long> dishIds = dishList.stream().map(Dish::getId).collect(Collectors.toList());
+        List<DishFlavor> dishFlavorList = dishFlavorMapper.getByDishIds(dishIds);
+
+        return dishFlavorList.stream().collect(Collectors.groupingBy(DishFlavor::getDishId));
+    }
+
 
     /**
      * 菜品起售停售
      *
      * @param status
      * @param id
+     * @return 停售菜品时被一起停售的套餐所属的分类id
      */
     @Transactional
-    public void saleOrNotSale(Integer status, Long id) {
+    public List<Long> saleOrNotSale(Integer status, Long id) {
         Dish dish = Dish.builder()
                 .id(id)
                 .status(status)
                 .build();
         dishMapper.update(dish);
 
-        if (status == StatusConstant.DISABLE) {
+        List<Long> setmealCategoryIds = Collections.emptyList();
+        if (StatusConstant.DISABLE.equals(status)) {
             // 如果是停售操作，还需要将包含当前菜品的套餐也停售
-            List<Long> dishIds = new ArrayList<>();
-            dishIds.add(id);
-            // select setmeal_id from setmeal_dish where dish_id in (?,?,?)
-            List<Long> setmealIds = setMealDishMapper.getSetMealIdsByDishIds(dishIds);
+            // select distinct setmeal_id from setmeal_dish where dish_id in (?,?,?)
+            List<Long> setmealIds = setMealDishMapper.getSetMealIdsByDishIds(Collections.singletonList(id));
             if (setmealIds != null && setmealIds.size() > 0) {
-                for (Long setmealId : setmealIds) {
-                    Setmeal setmeal = Setmeal.builder()
-                            .id(setmealId)
-                            .status(StatusConstant.DISABLE)
-                            .build();
-                    setmealMapper.update(setmeal);
+                //一条语句停售全部相关套餐，已停售的套餐不再修改
+                Setmeal setmeal = Setmeal.builder()
+                        .status(StatusConstant.DISABLE)
+                        .updateTime(LocalDateTime.now())
+                        .updateUser(BaseContext.getCurrentId())
+                        .build();
+                if (setmealMapper.updateStatusByIds(setmealIds, setmeal) > 0) {
+                    setmealCategoryIds = setmealMapper.getCategoryIdsByIds(setmealIds);
                 }
             }
         }
+
+        priceIndex.invalidate();
+        return setmealCategoryIds;
+    }
+
+    /**
+     * 根据菜品id集合查询菜品所属的分类id
+     *
+     * @param ids
+     * @return
+     */
+    public List<Long> getCategoryIdsByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return dishMapper.getCategoryIdsByIds(ids);
     }
 
 }
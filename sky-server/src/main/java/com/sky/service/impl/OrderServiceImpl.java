@@ -12,14 +12,23 @@ import com.sky.exception.AddressBookBusinessException;
 import com.sky.exception.OrderBusinessException;
 import com.sky.exception.ShoppingCartBusinessException;
 import com.sky.mapper.*;
+import com.sky.pricing.OrderPriceCalculator;
 import com.sky.result.PageResult;
 import com.sky.service.OrderService;
+import com.sky.service.ShopService;
+import com.sky.service.ShoppingCartService;
+import com.sky.statistics.OrderStatusCounter;
+import com.sky.statistics.RealtimeSalesTracker;
+import com.sky.statistics.SalesRollup;
+import com.sky.task.OrderTimeoutScheduler;
+import com.sky.utils.SnowflakeIdGenerator;
 import com.sky.utils.WeChatPayUtil;
 import com.sky.vo.OrderPaymentVO;
 import com.sky.vo.OrderStatisticsVO;
 import com.sky.vo.OrderSubmitVO;
 import com.sky.vo.OrderVO;
-import com.sky.websocket.WebSocketServer;
+import com.sky.websocket.WebSocketPublisher;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -30,11 +39,14 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 public class OrderServiceImpl implements OrderService {
     @Autowired
     private OrderMapper orderMapper;
@@ -44,14 +56,28 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private AddressBookMapper addressBookMapper;
     @Autowired
-    private ShoppingCartMapper shoppingCartMapper;
+    private ShoppingCartService shoppingCartService;
     @Autowired
     private UserMapper userMapper;
 
     @Autowired
     private WeChatPayUtil weChatPayUtil;
     @Autowired
-    private WebSocketServer webSocketServer;
+    private WebSocketPublisher webSocketPublisher;
+    @Autowired
+    private OrderStatusCounter orderStatusCounter;
+    @Autowired
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+    @Autowired
+    private OrderPriceCalculator orderPriceCalculator;
+    @Autowired
+    private OrderTimeoutScheduler orderTimeoutScheduler;
+    @Autowired
+    private SalesRollup salesRollup;
+    @Autowired
+    private RealtimeSalesTracker realtimeSalesTracker;
+    @Autowired
+    private ShopService shopService;
 
 
     /**
@@ -63,6 +89,11 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public OrderSubmitVO submitOrder(OrdersSubmitDTO ordersSubmitDTO) {
+        //店铺已打烊时直接拒绝，营业状态读取本地快照
+        if (shopService.isClosed()) {
+            throw new OrderBusinessException(MessageConstant.SHOP_CLOSED);
+        }
+
         //处理业务异常（地址簿为空 购物车数据为空）
         AddressBook addressBook = addressBookMapper.getById(ordersSubmitDTO.getAddressBookId());
         if (addressBook == null) {
@@ -71,39 +102,48 @@ public class OrderServiceImpl implements OrderService {
         }
         //查询当前用户购物车数据
         Long userId = BaseContext.getCurrentId();
-        ShoppingCart shoppingCart = ShoppingCart.builder().userId(userId).build();
-        List<ShoppingCart> shoppingCartList = shoppingCartMapper.list(shoppingCart);
+        List<ShoppingCart> shoppingCartList = shoppingCartService.listByUserId(userId);
         if (shoppingCartList == null || shoppingCartList.size() == 0) {
             //抛出业务异常
             throw new ShoppingCartBusinessException(MessageConstant.SHOPPING_CART_IS_NULL);
         }
 
+        //按当前价格重新计算订单金额，不使用客户端提交的金额
+        OrderPriceDTO orderPrice = orderPriceCalculator.calculate(shoppingCartList);
+        if (ordersSubmitDTO.getAmount() != null && ordersSubmitDTO.getAmount().compareTo(orderPrice.getAmount()) != 0) {
+            log.warn("客户端提交的订单金额与计算结果不一致，用户id：{}，提交金额：{}，计算金额：{}",
+                    userId, ordersSubmitDTO.getAmount(), orderPrice.getAmount());
+        }
+
         //向订单表插入1条数据
         Orders orders = new Orders();
         BeanUtils.copyProperties(ordersSubmitDTO, orders);
+        orders.setAmount(orderPrice.getAmount());
+        orders.setPackAmount(orderPrice.getPackAmount());
+        if (Integer.valueOf(1).equals(ordersSubmitDTO.getTablewareStatus())) {
+            //按餐量提供餐具
+            orders.setTablewareNumber(orderPrice.getItemCount());
+        }
         orders.setOrderTime(LocalDateTime.now());
         orders.setPayStatus(Orders.UN_PAID);
         orders.setStatus(Orders.PENDING_PAYMENT);
-        orders.setNumber(String.valueOf(System.currentTimeMillis()));
+        orders.setNumber(snowflakeIdGenerator.nextIdStr());
         orders.setPhone(addressBook.getPhone());
         orders.setConsignee(addressBook.getConsignee());
         orders.setUserId(userId);
 
 
         orderMapper.insert(orders);
-        //向订单明细表插入多条数据
-        ArrayList<OrderDetail> orderDetailArrayList = new ArrayList<>();
-        shoppingCartList.forEach(cart -> {
-            OrderDetail orderDetail = new OrderDetail();//订单明细
-            BeanUtils.copyProperties(cart, orderDetail);
-            orderDetail.setOrderId(orders.getId());
-            orderDetailArrayList.add(orderDetail);
-        });
+        orderStatusCounter.increment(orders.getOrderTime(), orders.getStatus());
+        orderTimeoutScheduler.schedule(orders.getId(), orders.getOrderTime());
+        //向订单明细表插入多条数据，单价为下单时的价格
+        List<OrderDetail> orderDetailList = orderPrice.getOrderDetailList();
+        orderDetailList.forEach(orderDetail -> orderDetail.setOrderId(orders.getId()));
         //批量插入数据
-        orderDetailMapper.insertBatch(orderDetailArrayList);
+        orderDetailMapper.insertBatch(orderDetailList);
 
         //清空购物车
-        shoppingCartMapper.deleteByUserId(userId);
+        shoppingCartService.cleanByUserId(userId);
 
         OrderSubmitVO orderSubmitVO = OrderSubmitVO.builder()
                 .id(orders.getId())
@@ -166,7 +206,15 @@ public class OrderServiceImpl implements OrderService {
                 .checkoutTime(LocalDateTime.now())
                 .build();
 
-        orderMapper.update(orders);
+        //只修改待付款的订单，重复的支付通知不再重复计数和计入实时销量
+        int count = orderMapper.updateStatusByIds(Collections.singletonList(ordersDB.getId()), Orders.PENDING_PAYMENT, orders);
+        if (count == 0) {
+            log.warn("订单不是待付款状态，忽略支付通知，订单号：{}，状态：{}", outTradeNo, ordersDB.getStatus());
+            return;
+        }
+        orderStatusCounter.transition(ordersDB.getOrderTime(), Orders.PENDING_PAYMENT, orders.getStatus());
+        orderTimeoutScheduler.cancel(ordersDB.getId());
+        realtimeSalesTracker.record(orderDetailMapper.getByOrderId(ordersDB.getId()));
         //通过websocket向客户端浏览器推送消息
         HashMap<Object, Object> map = new HashMap<>();
         map.put("type", 1);//1表示来单提醒
@@ -174,7 +222,7 @@ public class OrderServiceImpl implements OrderService {
         map.put("content", "订单号" + outTradeNo);
 
         String jsonString = JSON.toJSONString(map);
-        webSocketServer.sendToAllClient(jsonString);
+        webSocketPublisher.publish(jsonString);
 
 
     }
@@ -200,11 +248,14 @@ public class OrderServiceImpl implements OrderService {
         ArrayList<OrderVO> orderVOS = new ArrayList<>();
         //查询订单详情，并封装如OrdersVO
         if (orders != null && orders.getTotal() > 0) {
+            //一次查询出当前页所有订单的明细，按订单id分组
+            Map<Long, List<OrderDetail>> orderDetailMap = getOrderDetailMap(orders.getResult());
+
             for (Orders order : orders) {
                 OrderVO orderVO = new OrderVO();
                 Long orderId = order.getId();//订单id
 
-                List<OrderDetail> orderDetailList = orderDetailMapper.getByOrderId(orderId);
+                List<OrderDetail> orderDetailList = orderDetailMap.getOrDefault(orderId, new ArrayList<>());
                 BeanUtils.copyProperties(order, orderVO);
 
                 orderVO.setOrderDetailList(orderDetailList);
@@ -258,6 +309,7 @@ public class OrderServiceImpl implements OrderService {
         if (orders.getStatus() > 2) {
             throw new OrderBusinessException(MessageConstant.ORDER_STATUS_ERROR);
         }
+        Integer oldStatus = orders.getStatus();
         // 订单处于待接单状态下取消，需要进行退款
         if (orders.getStatus().equals(Orders.TO_BE_CONFIRMED)) {
   /*          //调用微信支付退款接口
@@ -275,7 +327,10 @@ public class OrderServiceImpl implements OrderService {
         orders.setStatus(Orders.CANCELLED);
         orders.setCancelReason("用户取消");
         orders.setCancelTime(LocalDateTime.now());
-        orderMapper.update(orders);
+        //按原状态修改，与商家接单等操作同时发生时只有一个成功
+        updateStatus(orders, oldStatus);
+        orderStatusCounter.transition(orders.getOrderTime(), oldStatus, Orders.CANCELLED);
+        orderTimeoutScheduler.cancel(orders.getId());
 
     }
 
@@ -303,8 +358,8 @@ public class OrderServiceImpl implements OrderService {
 
         }).collect(Collectors.toList());
 
-        //将购物车对象批量插入数据库
-        shoppingCartMapper.insertBatch(shoppingCartList);
+        //将购物车对象批量加入购物车
+        shoppingCartService.addBatch(shoppingCartList);
 
     }
 
@@ -338,9 +393,9 @@ public class OrderServiceImpl implements OrderService {
     @Override
     public OrderStatisticsVO statistics() {
         //查询不同状态订单的数量信息
-        Integer toBeConfirmed = orderMapper.countStatus(Orders.TO_BE_CONFIRMED);
-        Integer confirmed = orderMapper.countStatus(Orders.CONFIRMED);
-        Integer deliveryInProgress = orderMapper.countStatus(Orders.DELIVERY_IN_PROGRESS);
+        Integer toBeConfirmed = orderStatusCounter.count(Orders.TO_BE_CONFIRMED);
+        Integer confirmed = orderStatusCounter.count(Orders.CONFIRMED);
+        Integer deliveryInProgress = orderStatusCounter.count(Orders.DELIVERY_IN_PROGRESS);
 
         //将查询出的数据封装到OrderStatisticsVO中
         OrderStatisticsVO orderStatisticsVO = new OrderStatisticsVO();
@@ -359,12 +414,19 @@ public class OrderServiceImpl implements OrderService {
      */
     @Override
     public void confirm(OrdersConfirmDTO ordersConfirmDTO) {
+        // 根据id查询订单
+        Orders ordersDB = orderMapper.getById(ordersConfirmDTO.getId());
+
         Orders orders = Orders.builder()
                 .id(ordersConfirmDTO.getId())
                 .status(Orders.CONFIRMED)
                 .build();
 
-        orderMapper.update(orders);
+        if (ordersDB == null) {
+            throw new OrderBusinessException(MessageConstant.ORDER_NOT_FOUND);
+        }
+        updateStatus(orders, ordersDB.getStatus());
+        orderStatusCounter.transition(ordersDB.getOrderTime(), ordersDB.getStatus(), Orders.CONFIRMED);
 
     }
 
@@ -404,7 +466,8 @@ public class OrderServiceImpl implements OrderService {
         orders.setRejectionReason(ordersRejectionDTO.getRejectionReason());
         orders.setCancelTime(LocalDateTime.now());
 
-        orderMapper.update(orders);
+        updateStatus(orders, ordersDB.getStatus());
+        orderStatusCounter.transition(ordersDB.getOrderTime(), ordersDB.getStatus(), Orders.CANCELLED);
     }
 
 
@@ -416,6 +479,9 @@ public class OrderServiceImpl implements OrderService {
     public void cancel(OrdersCancelDTO ordersCancelDTO) throws Exception {
         // 根据id查询订单
         Orders ordersDB = orderMapper.getById(ordersCancelDTO.getId());
+        if (ordersDB == null) {
+            throw new OrderBusinessException(MessageConstant.ORDER_NOT_FOUND);
+        }
 
         //支付状态
         Integer payStatus = ordersDB.getPayStatus();
@@ -435,7 +501,9 @@ public class OrderServiceImpl implements OrderService {
         orders.setStatus(Orders.CANCELLED);
         orders.setCancelReason(ordersCancelDTO.getCancelReason());
         orders.setCancelTime(LocalDateTime.now());
-        orderMapper.update(orders);
+        updateStatus(orders, ordersDB.getStatus());
+        orderStatusCounter.transition(ordersDB.getOrderTime(), ordersDB.getStatus(), Orders.CANCELLED);
+        orderTimeoutScheduler.cancel(ordersCancelDTO.getId());
     }
 
 
@@ -458,7 +526,8 @@ public class OrderServiceImpl implements OrderService {
         // 更新订单状态,状态转为派送中
         orders.setStatus(Orders.DELIVERY_IN_PROGRESS);
 
-        orderMapper.update(orders);
+        updateStatus(orders, ordersDB.getStatus());
+        orderStatusCounter.transition(ordersDB.getOrderTime(), ordersDB.getStatus(), Orders.DELIVERY_IN_PROGRESS);
     }
 
     /**
@@ -466,6 +535,7 @@ public class OrderServiceImpl implements OrderService {
      *
      * @param id
      */
+    @Transactional
     public void complete(Long id) {
         // 根据id查询订单
         Orders ordersDB = orderMapper.getById(id);
@@ -476,12 +546,30 @@ public class OrderServiceImpl implements OrderService {
         }
 
         Orders orders = new Orders();
-        orders.setId(ordersDB.getId());
         // 更新订单状态,状态转为完成
         orders.setStatus(Orders.COMPLETED);
         orders.setDeliveryTime(LocalDateTime.now());
 
-        orderMapper.update(orders);
+        // 按原状态修改，避免重复完成时重复累加销量
+        int count = orderMapper.updateStatusByIds(Collections.singletonList(id), Orders.DELIVERY_IN_PROGRESS, orders);
+        if (count == 0) {
+            throw new OrderBusinessException(MessageConstant.ORDER_STATUS_ERROR);
+        }
+        orderStatusCounter.transition(ordersDB.getOrderTime(), ordersDB.getStatus(), Orders.COMPLETED);
+        salesRollup.addCompletedOrders(Collections.singletonList(id));
+    }
+
+    /**
+     * 按原状态修改单个订单，订单状态已被其他操作修改时抛出订单状态错误
+     *
+     * @param orders     修改后的订单信息，包含订单id
+     * @param fromStatus 读取订单时的状态
+     */
+    private void updateStatus(Orders orders, Integer fromStatus) {
+        int count = orderMapper.updateStatusByIds(Collections.singletonList(orders.getId()), fromStatus, orders);
+        if (count == 0) {
+            throw new OrderBusinessException(MessageConstant.ORDER_STATUS_ERROR);
+        }
     }
 
     /**
@@ -505,7 +593,7 @@ public class OrderServiceImpl implements OrderService {
         String json = JSON.toJSONString(map);
 
 
-        webSocketServer.sendToAllClient(json);
+        webSocketPublisher.publish(json);
 
     }
 
@@ -518,14 +606,17 @@ public class OrderServiceImpl implements OrderService {
         //检查是否为空集合
         if (!CollectionUtils.isEmpty(ordersList)) {
 
+            //一次查询出当前页所有订单的明细，按订单id分组
+            Map<Long, List<OrderDetail>> orderDetailMap = getOrderDetailMap(ordersList);
+
             //将orders转换为orderVO
             for (Orders orders : ordersList) {
 
                 OrderVO orderVO = new OrderVO();
                 BeanUtils.copyProperties(orders, orderVO);
 
-                //查询订单菜品详细数据，并将其转换为字符串类型
-                String orderDishesStr = getOrderDishesStr(orders);
+                //将订单菜品详细数据转换为字符串类型
+                String orderDishesStr = getOrderDishesStr(orderDetailMap.getOrDefault(orders.getId(), new ArrayList<>()));
 
                 //将菜品信息详细数据封装到orderVO中，并添加到orderVOList
                 orderVO.setOrderDishes(orderDishesStr);
@@ -539,10 +630,24 @@ public class OrderServiceImpl implements OrderService {
         return orderVOS;
     }
 
-    private String getOrderDishesStr(Orders orders) {
-        //查询菜品详情数据
-        List<OrderDetail> orderDetailList = orderDetailMapper.getByOrderId(orders.getId());
+    /**
+     * 批量查询订单明细，并按订单id分组
+     *
+     * @param ordersList
+     * @return
+     */
+    private Map<Long, List<OrderDetail>> getOrderDetailMap(List<Orders> ordersList) {
+        if (CollectionUtils.isEmpty(ordersList)) {
+            return new HashMap<>();
+        }
+
+        List<Long> orderIds = ordersList.stream().map(Orders::getId).collect(Collectors.toList());
+        List<OrderDetail> orderDetailList = orderDetailMapper.getByOrderIds(orderIds);
+
+        return orderDetailList.stream().collect(Collectors.groupingBy(OrderDetail::getOrderId));
+    }
 
+    private String getOrderDishesStr(List<OrderDetail> orderDetailList) {
         //将每一条菜品数据转换拼接为字符串
         List<String> stringList = orderDetailList.stream().map(orderDetail -> {
             String str = orderDetail.getName() + "*" + orderDetail.getNumber() + ";";
@@ -0,0 +1,279 @@
+package com.sky.service.impl;
+
+import com.sky.constant.MessageConstant;
+import com.sky.context.BaseContext;
+import com.sky.dto.ShoppingCartDTO;
+import com.sky.entity.Dish;
+import com.sky.entity.Setmeal;
+import com.sky.entity.ShoppingCart;
+import com.sky.exception.ShoppingCartBusinessException;
+import com.sky.mapper.DishMapper;
+import com.sky.mapper.SetmealMapper;
+import com.sky.properties.ShoppingCartProperties;
+import com.sky.service.ShoppingCartService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 基于redis hash的购物车，sky.shopping-cart.store=redis 时使用
+ * 每个用户两个hash：一个保存商品数量，通过HINCRBY原子增减；一个保存首次加入时的商品快照
+ * 先写入快照再增加数量，数量只在快照存在时增加，查询时不会出现有数量没有快照的商品
+ * 购物车不再写入数据库，下单时直接转为订单明细
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(prefix = "sky.shopping-cart", name = "store", havingValue = "redis")
+public class RedisShoppingCartServiceImpl implements ShoppingCartService {
+
+    //商品数量，key为 shopping_cart:{用户id}，field为商品标识
+    private static final String CART_KEY_PREFIX = "shopping_cart:";
+
+    //商品快照，key为 shopping_cart_item:{用户id}，field与商品数量相同
+    private static final String CART_ITEM_KEY_PREFIX = "shopping_cart_item:";
+
+    //快照存在时数量增加ARGV[2]，返回增加后的数量；快照不存在时清除没有快照的数量并返回-1，由调用方写入快照后重试
+    private static final DefaultRedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('hexists', KEYS[2], ARGV[1]) == 0 then " +
+                    "redis.call('hdel', KEYS[1], ARGV[1]) " +
+                    "return -1 " +
+                    "end " +
+                    "return redis.call('hincrby', KEYS[1], ARGV[1], ARGV[2])",
+            Long.class);
+
+    //写入快照后重试增加数量的次数，快照在重试期间被并发的删除操作清除时才会用到
+    private static final int ADD_RETRY_TIMES = 3;
+
+    //数量减一，减到0时同时删除数量和快照
+    private static final DefaultRedisScript<Long> SUB_SCRIPT = new DefaultRedisScript<>(
+            "local number = redis.call('hincrby', KEYS[1], ARGV[1], -1) " +
+                    "if number <= 0 then " +
+                    "redis.call('hdel', KEYS[1], ARGV[1]) " +
+                    "redis.call('hdel', KEYS[2], ARGV[1]) " +
+                    "end " +
+                    "return number",
+            Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisTemplate redisTemplate;
+    @Autowired
+    private DishMapper dishMapper;
+    @Autowired
+    private SetmealMapper setmealMapper;
+    @Autowired
+    private ShoppingCartProperties shoppingCartProperties;
+
+    /**
+     * 购物车添加
+     *
+     * @param shoppingCartDTO
+     */
+    @Override
+    public void addShoppingCart(ShoppingCartDTO shoppingCartDTO) {
+        Long userId = BaseContext.getCurrentId();
+        String field = getField(shoppingCartDTO.getDishId(), shoppingCartDTO.getSetmealId(), shoppingCartDTO.getDishFlavor());
+        //首次加入时才查询商品信息
+        add(userId, field, 1, () -> buildShoppingCart(userId, shoppingCartDTO));
+    }
+
+    /**
+     * 查看购物车
+     */
+    @Override
+    public List<ShoppingCart> showShoppingCart() {
+        return listByUserId(BaseContext.getCurrentId());
+    }
+
+    /**
+     * 清空购物车
+     */
+    @Override
+    public void cleanShoppingCart() {
+        cleanByUserId(BaseContext.getCurrentId());
+    }
+
+    /**
+     * 删除购物车中的一个商品
+     *
+     * @param shoppingCartDTO
+     */
+    @Override
+    public void sub(ShoppingCartDTO shoppingCartDTO) {
+        Long userId = BaseContext.getCurrentId();
+        String field = getField(shoppingCartDTO.getDishId(), shoppingCartDTO.getSetmealId(), shoppingCartDTO.getDishFlavor());
+
+        stringRedisTemplate.execute(SUB_SCRIPT, Arrays.asList(getCartKey(userId), getCartItemKey(userId)), field);
+    }
+
+    /**
+     * 查询指定用户的购物车
+     *
+     * @param userId
+     * @return
+     */
+    @Override
+    public List<ShoppingCart> listByUserId(Long userId) {
+        List<ShoppingCart> shoppingCartList = new ArrayList<>();
+
+        Map<Object, Object> numberMap = stringRedisTemplate.opsForHash().entries(getCartKey(userId));
+        if (numberMap.isEmpty()) {
+            return shoppingCartList;
+        }
+        Map<Object, Object> itemMap = redisTemplate.opsForHash().entries(getCartItemKey(userId));
+
+        numberMap.forEach((field, value) -> {
+            int number = Integer.parseInt((String) value);
+            ShoppingCart shoppingCart = (ShoppingCart) itemMap.get(field);
+            if (number <= 0 || shoppingCart == null) {
+                //快照尚未写入，或者数量已被减为0
+                log.warn("购物车商品数据不完整，用户id：{}，商品：{}", userId, field);
+                return;
+            }
+            shoppingCart.setNumber(number);
+            shoppingCartList.add(shoppingCart);
+        });
+
+        //按加入购物车的时间排序，与数据库中的顺序保持一致
+        shoppingCartList.sort(Comparator.comparing(ShoppingCart::getCreateTime,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return shoppingCartList;
+    }
+
+    /**
+     * 清空指定用户的购物车，存在事务时在事务提交后再清空，避免下单失败时购物车丢失
+     *
+     * @param userId
+     */
+    @Override
+    public void cleanByUserId(Long userId) {
+        Runnable clean = () -> stringRedisTemplate.delete(Arrays.asList(getCartKey(userId), getCartItemKey(userId)));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clean.run();
+                }
+            });
+        } else {
+            clean.run();
+        }
+    }
+
+    /**
+     * 批量加入购物车，已存在的商品累加数量
+     *
+     * @param shoppingCartList
+     */
+    @Override
+    public void addBatch(List<ShoppingCart> shoppingCartList) {
+        if (shoppingCartList == null || shoppingCartList.isEmpty()) {
+            return;
+        }
+
+        for (ShoppingCart shoppingCart : shoppingCartList) {
+            String field = getField(shoppingCart.getDishId(), shoppingCart.getSetmealId(), shoppingCart.getDishFlavor());
+            add(shoppingCart.getUserId(), field, shoppingCart.getNumber(), () -> shoppingCart);
+        }
+    }
+
+    /**
+     * 增加商品数量，快照不存在时先写入快照再增加
+     *
+     * @param userId
+     * @param field
+     * @param number   增加的数量
+     * @param snapshot 快照不存在时生成快照
+     */
+    private void add(Long userId, String field, int number, Supplier<ShoppingCart> snapshot) {
+        List<String> keys = Arrays.asList(getCartKey(userId), getCartItemKey(userId));
+
+        for (int i = 0; i < ADD_RETRY_TIMES; i++) {
+            Long result = stringRedisTemplate.execute(ADD_SCRIPT, keys, field, String.valueOf(number));
+            if (result != null && result > 0) {
+                refreshExpire(userId);
+                return;
+            }
+            redisTemplate.opsForHash().putIfAbsent(getCartItemKey(userId), field, snapshot.get());
+        }
+        throw new IllegalStateException("购物车添加失败，用户id：" + userId + "，商品：" + field);
+    }
+
+    /**
+     * 查询商品信息，生成购物车快照
+     *
+     * @param userId
+     * @param shoppingCartDTO
+     * @return
+     */
+    private ShoppingCart buildShoppingCart(Long userId, ShoppingCartDTO shoppingCartDTO) {
+        ShoppingCart shoppingCart = ShoppingCart.builder()
+                .userId(userId)
+                .dishId(shoppingCartDTO.getDishId())
+                .setmealId(shoppingCartDTO.getSetmealId())
+                .dishFlavor(shoppingCartDTO.getDishFlavor())
+                .createTime(LocalDateTime.now())
+                .build();
+
+        if (shoppingCartDTO.getDishId() != null) {
+            Dish dish = dishMapper.getById(shoppingCartDTO.getDishId());
+            if (dish == null) {
+                throw new ShoppingCartBusinessException(MessageConstant.SHOPPING_CART_ITEM_NOT_FOUND);
+            }
+            shoppingCart.setName(dish.getName());
+            shoppingCart.setImage(dish.getImage());
+            shoppingCart.setAmount(dish.getPrice());
+        } else {
+            Setmeal setmeal = setmealMapper.getById(shoppingCartDTO.getSetmealId());
+            if (setmeal == null) {
+                throw new ShoppingCartBusinessException(MessageConstant.SHOPPING_CART_ITEM_NOT_FOUND);
+            }
+            shoppingCart.setName(setmeal.getName());
+            shoppingCart.setImage(setmeal.getImage());
+            shoppingCart.setAmount(setmeal.getPrice());
+        }
+        return shoppingCart;
+    }
+
+    /**
+     * 商品标识，菜品为 dish:菜品id:口味，套餐为 setmeal:套餐id
+     */
+    private String getField(Long dishId, Long setmealId, String dishFlavor) {
+        if (dishId != null) {
+            return "dish:" + dishId + ":" + (dishFlavor == null ? "" : dishFlavor);
+        }
+        return "setmeal:" + setmealId;
+    }
+
+    //用户id作为hash tag，保证两个key在redis集群中位于同一个槽，以便在脚本中同时操作
+    private String getCartKey(Long userId) {
+        return CART_KEY_PREFIX + "{" + userId + "}";
+    }
+
+    private String getCartItemKey(Long userId) {
+        return CART_ITEM_KEY_PREFIX + "{" + userId + "}";
+    }
+
+    private void refreshExpire(Long userId) {
+        long expireDays = shoppingCartProperties.getExpireDays();
+        stringRedisTemplate.expire(getCartKey(userId), expireDays, TimeUnit.DAYS);
+        stringRedisTemplate.expire(getCartItemKey(userId), expireDays, TimeUnit.DAYS);
+    }
+}
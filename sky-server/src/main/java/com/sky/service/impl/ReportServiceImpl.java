@@ -1,14 +1,23 @@
 package com.sky.service.impl;
 
 import com.sky.dto.GoodsSalesDTO;
+import com.sky.dto.OrderDailyStatisticsDTO;
+import com.sky.dto.UserDailyStatisticsDTO;
 import com.sky.entity.Orders;
 import com.sky.mapper.OrderMapper;
 import com.sky.mapper.UserMapper;
 import com.sky.service.ReportService;
-import com.sky.service.WorkspaceService;
+import com.sky.statistics.RealtimeSalesTracker;
+import com.sky.statistics.SalesRollup;
 import com.sky.vo.*;
 import io.swagger.models.auth.In;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.xssf.streaming.SXSSFCell;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -25,16 +34,27 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 public class ReportServiceImpl implements ReportService {
+    //流式写入Excel时内存中保留的最大行数
+    private static final int ROW_ACCESS_WINDOW_SIZE = 100;
+    //模板中明细数据的起始行
+    private static final int DETAIL_FIRST_ROW = 7;
+    //模板中明细数据的列数（第1列至第6列）
+    private static final int DETAIL_CELL_COUNT = 6;
+
     @Autowired
     private OrderMapper orderMapper;
     @Autowired
     private UserMapper userMapper;
     @Autowired
-    private WorkspaceService workspaceService;
+    private SalesRollup salesRollup;
+    @Autowired
+    private RealtimeSalesTracker realtimeSalesTracker;
 
 
     /**
@@ -47,35 +67,19 @@ public class ReportServiceImpl implements ReportService {
     @Override
     public TurnoverReportVO getTurnoverStatistics(LocalDate beginTime, LocalDate endTime) {
         //当前集合用于存放begin到end范围内的日期
-        ArrayList<LocalDate> dateList = new ArrayList<>();
+        List<LocalDate> dateList = getDateList(beginTime, endTime);
 
-        dateList.add(beginTime);
+        //一次分组查询出区间内每天的订单统计数据
+        Map<LocalDate, OrderDailyStatisticsDTO> statisticsMap = getOrderStatisticsMap(beginTime, endTime);
 
-        while (!beginTime.equals(endTime)) {
-            //计算日期
-            beginTime = beginTime.plusDays(1);
-            dateList.add(beginTime);
-        }
-
-        //存放每天的营业额
-        ArrayList<Object> turnoverList = new ArrayList<>();
+        //存放每天的营业额，没有订单的日期补0
+        ArrayList<Double> turnoverList = new ArrayList<>();
         for (LocalDate date : dateList) {
-            //查询date日期对应的营业额数据，当日已完成订单的金额合计
-            LocalDateTime begin = LocalDateTime.of(date, LocalTime.MIN);
-            LocalDateTime end = LocalDateTime.of(date, LocalTime.MAX);
-
-            HashMap<Object, Object> hashMap = new HashMap<>();
-            hashMap.put("begin", begin);
-            hashMap.put("end", end);
-            hashMap.put("status", Orders.COMPLETED);
-            Double turnover = orderMapper.sumByMap(hashMap);
-            turnover = turnover == null ? 0.0 : turnover;
+            OrderDailyStatisticsDTO statistics = statisticsMap.get(date);
+            Double turnover = statistics == null || statistics.getTurnover() == null ? 0.0 : statistics.getTurnover();
             turnoverList.add(turnover);
-
-
         }
 
-
         TurnoverReportVO turnoverReportVO = TurnoverReportVO.builder()
                 .dateList(StringUtils.join(dateList, ","))
                 .turnoverList(StringUtils.join(turnoverList, ","))
@@ -94,36 +98,26 @@ public class ReportServiceImpl implements ReportService {
     @Override
     public UserReportVO getUserStatistics(LocalDate beginTime, LocalDate endTime) {
         //当前集合用于存放begin到end范围内的日期
-        ArrayList<LocalDate> dateList = new ArrayList<>();
+        List<LocalDate> dateList = getDateList(beginTime, endTime);
 
-        dateList.add(beginTime);
+        //区间开始前的用户总量
+        HashMap<Object, Object> hashMap = new HashMap<>();
+        hashMap.put("end", LocalDateTime.of(beginTime, LocalTime.MIN));
+        Integer totalUser = userMapper.countByMap(hashMap);
 
-        while (!beginTime.equals(endTime)) {
-            //计算日期
-            beginTime = beginTime.plusDays(1);
-            dateList.add(beginTime);
-        }
+        //一次分组查询出区间内每天的新增用户数量
+        Map<LocalDate, Integer> newUserMap = getNewUserMap(beginTime, endTime);
 
         ArrayList<Integer> newUserList = new ArrayList<>();//存放新增用户数量
         ArrayList<Integer> totalUserList = new ArrayList<>();//存放总用户数量
 
         for (LocalDate date : dateList) {
-            HashMap<Object, Object> hashMap = new HashMap<>();
-
-            LocalDateTime begin = LocalDateTime.of(date, LocalTime.MIN);
-            LocalDateTime end = LocalDateTime.of(date, LocalTime.MAX);
-            //总用户数量
-            hashMap.put("end", end);
-            Integer totalUser = userMapper.countByMap(hashMap);
-
-            //新增用户数量
-            hashMap.put("begin", begin);
-            Integer newUser = userMapper.countByMap(hashMap);
+            Integer newUser = newUserMap.getOrDefault(date, 0);
+            //总用户数量在前一天的基础上累加
+            totalUser += newUser;
 
             totalUserList.add(totalUser);
             newUserList.add(newUser);
-
-
         }
 
         //封装结果数据并返回
@@ -144,45 +138,30 @@ public class ReportServiceImpl implements ReportService {
     @Override
     public OrderReportVO getOrdersStatistics(LocalDate beginTime, LocalDate endTime) {
         //当前集合用于存放begin到end范围内的日期
-        ArrayList<LocalDate> dateList = new ArrayList<>();
+        List<LocalDate> dateList = getDateList(beginTime, endTime);
 
-        dateList.add(beginTime);
-
-        while (!beginTime.equals(endTime)) {
-            //计算日期
-            beginTime = beginTime.plusDays(1);
-            dateList.add(beginTime);
-        }
+        //一次分组查询出区间内每天的订单统计数据
+        Map<LocalDate, OrderDailyStatisticsDTO> statisticsMap = getOrderStatisticsMap(beginTime, endTime);
 
         ArrayList<Integer> orderCountList = new ArrayList<>();//存放每天订单总数
         ArrayList<Integer> validOrderCountList = new ArrayList<>();//存放每天有效订单总数
 
-        //遍历dateList集合，查询每天的有效订单数和订单总量
-        for (LocalDate date : dateList) {
-            HashMap<Object, Object> hashMap = new HashMap<>();
-
-            LocalDateTime begin = LocalDateTime.of(date, LocalTime.MIN);
-            LocalDateTime end = LocalDateTime.of(date, LocalTime.MAX);
-
-            //查询每天的订单总数
-            Integer orderCount = getOrderCount(begin, end, null);
-
-            //查询每天的有效订单数
-            Integer validOrderCount = getOrderCount(begin, end, Orders.COMPLETED);
+        Integer totalOrderCount = 0;//订单总数
+        Integer validOrderCount = 0;//有效订单总数
 
+        //遍历dateList集合，没有订单的日期补0
+        for (LocalDate date : dateList) {
+            OrderDailyStatisticsDTO statistics = statisticsMap.get(date);
+            Integer orderCount = statistics == null ? 0 : statistics.getOrderCount();
+            Integer validCount = statistics == null ? 0 : statistics.getValidOrderCount();
 
             orderCountList.add(orderCount);
-            validOrderCountList.add(validOrderCount);
+            validOrderCountList.add(validCount);
 
+            totalOrderCount += orderCount;
+            validOrderCount += validCount;
         }
 
-        //计算订单总数
-        Integer totalOrderCount = orderCountList.stream().reduce(Integer::sum).get();
-
-        //计算有效订单总数
-        Integer validOrderCount = validOrderCountList.stream().reduce(Integer::sum).get();
-
-
         //计算订单完成率
         Double orderCompletionRate = 0.0;
         if (totalOrderCount != 0) {
@@ -204,7 +183,7 @@ public class ReportServiceImpl implements ReportService {
     }
 
     /**
-     * 统计指定时间区间内的销量排名TOP10
+     * 统计指定时间区间内的销量排名TOP10，读取每日销量汇总
      *
      * @param beginTime
      * @param endTime
@@ -212,111 +191,258 @@ public class ReportServiceImpl implements ReportService {
      */
     @Override
     public SalesTop10ReportVO getSalesTop10(LocalDate beginTime, LocalDate endTime) {
-        LocalDateTime begin = LocalDateTime.of(beginTime, LocalTime.MIN);
-        LocalDateTime end = LocalDateTime.of(endTime, LocalTime.MAX);
-
-        List<GoodsSalesDTO> salesTop10 = orderMapper.getSalesTop10(begin, end);
-
-        List<String> names = salesTop10.stream().map(GoodsSalesDTO::getName).collect(Collectors.toList());
-        String nameList = StringUtils.join(names, ",");
-        List<Integer> numbers = salesTop10.stream().map(GoodsSalesDTO::getNumber).collect(Collectors.toList());
-        String numberList = StringUtils.join(numbers, ",");
-
-        SalesTop10ReportVO salesTop10ReportVO = SalesTop10ReportVO.builder()
-                .nameList(nameList)
-                .numberList(numberList)
-                .build();
-
+        return toSalesTop10ReportVO(salesRollup.getTopN(beginTime, endTime, 10));
+    }
 
-        return salesTop10ReportVO;
+    /**
+     * 统计最近几小时的实时销量排名TOP10，读取内存中的统计结果
+     *
+     * @param hours
+     * @return
+     */
+    @Override
+    public SalesTop10ReportVO getRealtimeSalesTop10(int hours) {
+        return toSalesTop10ReportVO(realtimeSalesTracker.getTopN(hours, 10));
     }
 
     /**
-     * 导出运营数据报表
+     * 导出运营数据报表，默认导出最近30天
      *
      * @param response
      */
     @Override
     public void exportBusinessData(HttpServletResponse response) {
-        //查询数据库,获得数据--------最近30天营业数据
         LocalDate dateBegin = LocalDate.now().minusDays(30);
         LocalDate dateEnd = LocalDate.now().minusDays(1);
 
-        BusinessDataVO businessDataVO = workspaceService.getBusinessData(LocalDateTime.of(dateBegin, LocalTime.MIN), LocalDateTime.of(dateEnd, LocalTime.MAX));
+        exportBusinessData(dateBegin, dateEnd, response);
+    }
+
+    /**
+     * 导出指定时间区间内的运营数据报表
+     *
+     * @param dateBegin
+     * @param dateEnd
+     * @param response
+     */
+    @Override
+    public void exportBusinessData(LocalDate dateBegin, LocalDate dateEnd, HttpServletResponse response) {
+        //查询数据库，一次分组查询获得区间内每天的营业数据
+        List<LocalDate> dateList = getDateList(dateBegin, dateEnd);
+        Map<LocalDate, OrderDailyStatisticsDTO> statisticsMap = getOrderStatisticsMap(dateBegin, dateEnd);
+        Map<LocalDate, Integer> newUserMap = getNewUserMap(dateBegin, dateEnd);
+
+        //由每天的数据汇总出整个区间的概览数据
+        double turnover = 0.0;
+        int orderCount = 0;
+        int validOrderCount = 0;
+        int newUsers = 0;
+        for (OrderDailyStatisticsDTO statistics : statisticsMap.values()) {
+            turnover += statistics.getTurnover() == null ? 0.0 : statistics.getTurnover();
+            orderCount += statistics.getOrderCount();
+            validOrderCount += statistics.getValidOrderCount();
+        }
+        for (Integer count : newUserMap.values()) {
+            newUsers += count;
+        }
+        BusinessDataVO businessDataVO = buildBusinessData(turnover, orderCount, validOrderCount, newUsers);
 
 
         //通过POI将数据写入Excel
         InputStream inputStream = this.getClass().getClassLoader().getResourceAsStream("template/运营数据报表模板.xlsx");
 
+        SXSSFWorkbook excel = null;
         try {
-            XSSFWorkbook excel = new XSSFWorkbook(inputStream);
+            XSSFWorkbook template = new XSSFWorkbook(inputStream);
 
-            XSSFSheet sheet = excel.getSheet("Sheet1");
+            XSSFSheet templateSheet = template.getSheet("Sheet1");
 
-            sheet.getRow(1).getCell(1).setCellValue("时间：" + dateBegin + "至" + dateEnd);
+            templateSheet.getRow(1).getCell(1).setCellValue("时间：" + dateBegin + "至" + dateEnd);
 
-            XSSFRow row = sheet.getRow(3);
+            XSSFRow row = templateSheet.getRow(3);
             row.getCell(2).setCellValue(businessDataVO.getTurnover());
             row.getCell(4).setCellValue(businessDataVO.getOrderCompletionRate());
             row.getCell(6).setCellValue(businessDataVO.getNewUsers());
 
-            row = sheet.getRow(4);
+            row = templateSheet.getRow(4);
             row.getCell(2).setCellValue(businessDataVO.getValidOrderCount());
             row.getCell(4).setCellValue(businessDataVO.getUnitPrice());
 
-            //填充明细数据
-            for (int i = 0; i < 30; i++) {
-                LocalDate date = dateBegin.plusDays(i);
-                //查询某天营业额数据
-                BusinessDataVO businessData = workspaceService.getBusinessData(LocalDateTime.of(date, LocalTime.MIN), LocalDateTime.of(date, LocalTime.MAX));
-                //获得某一行
-                row = sheet.getRow(7 + i);
-                row.getCell(1).setCellValue(date.toString());
-                row.getCell(2).setCellValue(businessData.getTurnover());
-                row.getCell(3).setCellValue(businessData.getValidOrderCount());
-                row.getCell(4).setCellValue(businessData.getOrderCompletionRate());
-                row.getCell(5).setCellValue(businessData.getUnitPrice());
-                row.getCell(6).setCellValue(businessData.getNewUsers());
+            //记录模板中明细行的样式，再移除预留的明细行，明细数据统一流式写入
+            XSSFRow styleRow = templateSheet.getRow(DETAIL_FIRST_ROW);
+            short rowHeight = styleRow.getHeight();
+            CellStyle[] cellStyles = new CellStyle[DETAIL_CELL_COUNT + 1];
+            for (int i = 1; i <= DETAIL_CELL_COUNT; i++) {
+                cellStyles[i] = styleRow.getCell(i).getCellStyle();
+            }
+            for (int i = templateSheet.getLastRowNum(); i >= DETAIL_FIRST_ROW; i--) {
+                XSSFRow templateRow = templateSheet.getRow(i);
+                if (templateRow != null) {
+                    templateSheet.removeRow(templateRow);
+                }
+            }
 
+            //基于模板创建流式工作簿，内存中最多保留ROW_ACCESS_WINDOW_SIZE行，超出的行写入临时文件
+            excel = new SXSSFWorkbook(template, ROW_ACCESS_WINDOW_SIZE);
+            excel.setCompressTempFiles(true);
+            SXSSFSheet sheet = excel.getSheet("Sheet1");
 
+            //填充明细数据
+            int rowNum = DETAIL_FIRST_ROW;
+            for (LocalDate date : dateList) {
+                OrderDailyStatisticsDTO statistics = statisticsMap.get(date);
+                BusinessDataVO businessData = statistics == null
+                        ? buildBusinessData(0.0, 0, 0, newUserMap.getOrDefault(date, 0))
+                        : buildBusinessData(statistics.getTurnover() == null ? 0.0 : statistics.getTurnover(),
+                        statistics.getOrderCount(), statistics.getValidOrderCount(), newUserMap.getOrDefault(date, 0));
+
+                SXSSFRow detailRow = sheet.createRow(rowNum++);
+                detailRow.setHeight(rowHeight);
+                createCell(detailRow, 1, cellStyles).setCellValue(date.toString());
+                createCell(detailRow, 2, cellStyles).setCellValue(businessData.getTurnover());
+                createCell(detailRow, 3, cellStyles).setCellValue(businessData.getValidOrderCount());
+                createCell(detailRow, 4, cellStyles).setCellValue(businessData.getOrderCompletionRate());
+                createCell(detailRow, 5, cellStyles).setCellValue(businessData.getUnitPrice());
+                createCell(detailRow, 6, cellStyles).setCellValue(businessData.getNewUsers());
             }
 
 
             //通过输出流下载到客户端浏览器
+            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
             ServletOutputStream outputStream = response.getOutputStream();
             excel.write(outputStream);
+            outputStream.flush();
             //关闭资源
             outputStream.close();
-            excel.close();
 
 
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            //删除流式写入产生的临时文件
+            if (excel != null) {
+                excel.dispose();
+                try {
+                    excel.close();
+                } catch (IOException e) {
+                    log.warn("关闭Excel工作簿失败：{}", e.getMessage());
+                }
+            }
         }
 
 
     }
 
     /**
-     * 根据条件统计订单数量
+     * 按工作台的口径计算营业数据
      *
-     * @param begin
-     * @param end
-     * @param status
+     * @param turnover
+     * @param orderCount
+     * @param validOrderCount
+     * @param newUsers
      * @return
      */
+    private BusinessDataVO buildBusinessData(double turnover, int orderCount, int validOrderCount, int newUsers) {
+        double unitPrice = 0.0;
+        double orderCompletionRate = 0.0;
+        if (orderCount != 0 && validOrderCount != 0) {
+            //订单完成率
+            orderCompletionRate = (double) validOrderCount / orderCount;
+            //平均客单价
+            unitPrice = turnover / validOrderCount;
+        }
+
+        return BusinessDataVO.builder()
+                .turnover(turnover)
+                .validOrderCount(validOrderCount)
+                .orderCompletionRate(orderCompletionRate)
+                .unitPrice(unitPrice)
+                .newUsers(newUsers)
+                .build();
+    }
 
-    private Integer getOrderCount(LocalDateTime begin, LocalDateTime end, Integer status) {
+    /**
+     * 在明细行中创建单元格，并套用模板中的样式
+     *
+     * @param row
+     * @param column
+     * @param cellStyles
+     * @return
+     */
+    private SXSSFCell createCell(SXSSFRow row, int column, CellStyle[] cellStyles) {
+        SXSSFCell cell = row.createCell(column);
+        cell.setCellStyle(cellStyles[column]);
+        return cell;
+    }
+
+    /**
+     * 获取begin到end范围内的日期集合
+     *
+     * @param beginTime
+     * @param endTime
+     * @return
+     */
+    private List<LocalDate> getDateList(LocalDate beginTime, LocalDate endTime) {
+        ArrayList<LocalDate> dateList = new ArrayList<>();
+        for (LocalDate date = beginTime; !date.isAfter(endTime); date = date.plusDays(1)) {
+            dateList.add(date);
+        }
+        return dateList;
+    }
+
+    /**
+     * 按日期分组统计区间内的营业额、订单总数和有效订单数，一次查询完成
+     *
+     * @param beginTime
+     * @param endTime
+     * @return key为日期，没有订单的日期不在结果中
+     */
+    private Map<LocalDate, OrderDailyStatisticsDTO> getOrderStatisticsMap(LocalDate beginTime, LocalDate endTime) {
+        HashMap<Object, Object> hashMap = new HashMap<>();
+        hashMap.put("begin", LocalDateTime.of(beginTime, LocalTime.MIN));
+        hashMap.put("end", LocalDateTime.of(endTime.plusDays(1), LocalTime.MIN));
+        hashMap.put("status", Orders.COMPLETED);
+
+        List<OrderDailyStatisticsDTO> statisticsList = orderMapper.statisticsByDate(hashMap);
+
+        return statisticsList.stream()
+                .collect(Collectors.toMap(OrderDailyStatisticsDTO::getOrderDate, statistics -> statistics));
+    }
+
+    /**
+     * 按日期分组统计区间内的新增用户数量，一次查询完成
+     *
+     * @param beginTime
+     * @param endTime
+     * @return key为日期，没有新增用户的日期不在结果中
+     */
+    private Map<LocalDate, Integer> getNewUserMap(LocalDate beginTime, LocalDate endTime) {
         HashMap<Object, Object> hashMap = new HashMap<>();
-        hashMap.put("begin", begin);
-        hashMap.put("end", end);
-        hashMap.put("status", status);
+        hashMap.put("begin", LocalDateTime.of(beginTime, LocalTime.MIN));
+        hashMap.put("end", LocalDateTime.of(endTime.plusDays(1), LocalTime.MIN));
 
-        Integer count = orderMapper.countByMap(hashMap);
+        List<UserDailyStatisticsDTO> statisticsList = userMapper.countByDate(hashMap);
 
-        return count;
+        return statisticsList.stream()
+                .collect(Collectors.toMap(UserDailyStatisticsDTO::getCreateDate, UserDailyStatisticsDTO::getNewUsers));
+    }
 
+    /**
+     * 将销量排名转为以逗号分隔的名称列表和销量列表
+     *
+     * @param salesTop10
+     * @return
+     */
+    private SalesTop10ReportVO toSalesTop10ReportVO(List<GoodsSalesDTO> salesTop10) {
+        List<String> names = salesTop10.stream().map(GoodsSalesDTO::getName).collect(Collectors.toList());
+        String nameList = StringUtils.join(names, ",");
+        List<Integer> numbers = salesTop10.stream().map(GoodsSalesDTO::getNumber).collect(Collectors.toList());
+        String numberList = StringUtils.join(numbers, ",");
 
+        return SalesTop10ReportVO.builder()
+                .nameList(nameList)
+                .numberList(numberList)
+                .build();
     }
 
 
@@ -14,6 +14,7 @@ import com.sky.exception.SetmealEnableFailedException;
 import com.sky.mapper.DishMapper;
 import com.sky.mapper.SetMealDishMapper;
 import com.sky.mapper.SetmealMapper;
+import com.sky.pricing.PriceIndex;
 import com.sky.result.PageResult;
 import com.sky.service.SetmealService;
 import com.sky.vo.DishItemVO;
@@ -42,6 +43,9 @@ public class SetmealServiceImpl implements SetmealService {
     @Autowired
     private DishMapper dishMapper;
 
+    @Autowired
+    private PriceIndex priceIndex;
+
     /**
      * 新增套餐,同时需要保存套餐和菜品的关系
      *
@@ -68,6 +72,7 @@ public class SetmealServiceImpl implements SetmealService {
         //向套餐菜品关联表插入数据
         setMealDishMapper.insertBatch(setmealDishes);
 
+        priceIndex.invalidate();
     }
 
     /**
@@ -166,7 +171,8 @@ public class SetmealServiceImpl implements SetmealService {
 
         setMealDishMapper.insertBatch(setmealDishes);
 
-
+        //套餐价格可能已修改
+        priceIndex.invalidate();
     }
 
     /**
@@ -198,6 +204,7 @@ public class SetmealServiceImpl implements SetmealService {
         Setmeal setmeal = Setmeal.builder().id(id).status(status).build();
         setmealMapper.update(setmeal);
 
+        priceIndex.invalidate();
     }
 
     /**
@@ -0,0 +1,97 @@
+package com.sky.service.impl;
+
+import com.sky.constant.ShopConstant;
+import com.sky.service.ShopService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * 店铺营业状态
+ * 营业状态保存在redis中，每个节点在本地保存一份快照，查询时直接返回快照，不访问redis；
+ * 修改营业状态后通过redis频道通知所有节点重新读取，并定时与redis对账，兜底丢失的通知
+ */
+@Service
+@Slf4j
+public class ShopServiceImpl implements ShopService, MessageListener {
+
+    @Autowired
+    private RedisTemplate redisTemplate;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    //本节点的营业状态快照，未设置过营业状态或者尚未读取成功时为null
+    private volatile Integer status;
+
+    /**
+     * 设置店铺营业状态
+     *
+     * @param status
+     */
+    @Override
+    public void setStatus(Integer status) {
+        redisTemplate.opsForValue().set(ShopConstant.SHOP_STATUS_KEY, status);
+        this.status = status;
+
+        try {
+            stringRedisTemplate.convertAndSend(ShopConstant.SHOP_STATUS_CHANNEL, String.valueOf(status));
+        } catch (Exception e) {
+            //通知失败时其他节点在下次对账时更新
+            log.warn("发送营业状态变更通知失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 查询店铺营业状态
+     *
+     * @return
+     */
+    @Override
+    public Integer getStatus() {
+        return status;
+    }
+
+    /**
+     * 店铺是否已打烊，营业状态未知时不拦截
+     *
+     * @return
+     */
+    @Override
+    public boolean isClosed() {
+        return ShopConstant.CLOSED.equals(status);
+    }
+
+    /**
+     * 收到营业状态变更通知，从redis重新读取
+     * 不直接使用消息中的状态，连续修改时通知的到达顺序与写入顺序可能不一致
+     *
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        refresh();
+    }
+
+    /**
+     * 从redis读取营业状态，启动时以及定时对账时调用
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${sky.shop.refresh-interval:60000}")
+    public void refresh() {
+        try {
+            Object value = redisTemplate.opsForValue().get(ShopConstant.SHOP_STATUS_KEY);
+            status = value == null ? null : ((Number) value).intValue();
+        } catch (Exception e) {
+            //读取失败时保留原来的快照
+            log.warn("读取店铺营业状态失败：{}", e.getMessage());
+        }
+    }
+}
@@ -14,13 +14,21 @@ import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
+/**
+ * 基于数据库shopping_cart表的购物车，默认使用
+ */
 @Service
 @Slf4j
+@ConditionalOnProperty(prefix = "sky.shopping-cart", name = "store", havingValue = "mysql", matchIfMissing = true)
 public class ShoppingCartServiceImpl implements ShoppingCartService {
 
     @Autowired
@@ -149,4 +157,86 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
 
 
     }
+
+    /**
+     * 查询指定用户的购物车
+     *
+     * @param userId
+     * @return
+     */
+    @Override
+    public List<ShoppingCart> listByUserId(Long userId) {
+        ShoppingCart shoppingCart = ShoppingCart.builder()
+                .userId(userId)
+                .build();
+        return shoppingCartMapper.list(shoppingCart);
+    }
+
+    /**
+     * 清空指定用户的购物车
+     *
+     * @param userId
+     */
+    @Override
+    public void cleanByUserId(Long userId) {
+        shoppingCartMapper.deleteByUserId(userId);
+    }
+
+    /**
+     * 批量加入购物车，已存在的商品累加数量，其余商品批量插入
+     *
+     * @param shoppingCartList
+     */
+    @Override
+    @Transactional
+    public void addBatch(List<ShoppingCart> shoppingCartList) {
+        if (shoppingCartList == null || shoppingCartList.isEmpty()) {
+            return;
+        }
+
+        //批量加入的商品都属于同一个用户，只查询一次购物车
+        ShoppingCart query = new ShoppingCart();
+        query.setUserId(shoppingCartList.get(0).getUserId());
+        List<ShoppingCart> existList = shoppingCartMapper.list(query);
+
+        List<ShoppingCart> insertList = new ArrayList<>();
+        for (ShoppingCart shoppingCart : shoppingCartList) {
+            ShoppingCart exist = findSameItem(existList, shoppingCart);
+            if (exist == null) {
+                exist = findSameItem(insertList, shoppingCart);
+            }
+            if (exist == null) {
+                insertList.add(shoppingCart);
+                continue;
+            }
+
+            exist.setNumber(exist.getNumber() + shoppingCart.getNumber());
+            if (exist.getId() != null) {
+                shoppingCartMapper.updateById(exist);
+            }
+        }
+
+        if (!insertList.isEmpty()) {
+            shoppingCartMapper.insertBatch(insertList);
+        }
+    }
+
+    /**
+     * 查找同一商品，菜品的口味不同时视为不同商品
+     *
+     * @param shoppingCartList
+     * @param shoppingCart
+     * @return 不存在时返回null
+     */
+    private ShoppingCart findSameItem(List<ShoppingCart> shoppingCartList, ShoppingCart shoppingCart) {
+        for (ShoppingCart item : shoppingCartList) {
+            if (Objects.equals(item.getUserId(), shoppingCart.getUserId())
+                    && Objects.equals(item.getDishId(), shoppingCart.getDishId())
+                    && Objects.equals(item.getSetmealId(), shoppingCart.getSetmealId())
+                    && Objects.equals(item.getDishFlavor(), shoppingCart.getDishFlavor())) {
+                return item;
+            }
+        }
+        return null;
+    }
 }
@@ -21,9 +21,6 @@ import java.util.HashMap;
 @Slf4j
 public class UserServiceImpl implements UserService {
 
-    //微信服务接口地址
-    public static final String WX_LOGIN = "https://api.weixin.qq.com/sns/jscode2session";
-
     @Autowired
     private WeChatProperties weChatProperties;
 
@@ -77,7 +74,7 @@ public class UserServiceImpl implements UserService {
         map.put("js_code", userLoginDTO.getCode());
         map.put("grant_type", "authorization_code");
 
-        String json = HttpClientUtil.doGet(WX_LOGIN, map);
+        String json = HttpClientUtil.doGet(weChatProperties.getLoginUrl(), map);
 
 
         String openid = JSON.parseObject(json).get("openid").toString();
@@ -0,0 +1,220 @@
+package com.sky.statistics;
+
+import com.sky.dto.OrderStatusCountDTO;
+import com.sky.mapper.OrderMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 订单状态计数器
+ * 在内存中维护各状态的订单总数以及当天各状态的订单数，订单状态流转时同步更新，
+ * 工作台和订单统计直接读取计数，不再扫描订单表；定时与数据库对账，修正多节点或事务回滚带来的偏差
+ * 只有按原状态修改成功的订单才调用transition，同一订单的并发流转只计数一次
+ */
+@Component
+@Slf4j
+public class OrderStatusCounter {
+
+    //订单状态取值为1~6，下标0不使用
+    private static final int STATUS_SIZE = 7;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    //各状态的订单总数
+    private final AtomicLongArray totalCounts = new AtomicLongArray(STATUS_SIZE);
+
+    //按下单日期统计的各状态订单数，只保留昨天和今天
+    private final ConcurrentHashMap<LocalDate, AtomicLongArray> dailyCounts = new ConcurrentHashMap<>();
+
+    //是否已经完成过一次对账
+    private volatile boolean initialized = false;
+
+    /**
+     * 新订单计数
+     *
+     * @param orderTime 下单时间
+     * @param status    订单状态
+     */
+    public void increment(LocalDateTime orderTime, Integer status) {
+        afterCommit(() -> add(orderTime, status, 1));
+    }
+
+    /**
+     * 订单状态流转计数，调用方须确认订单已按原状态修改成功
+     *
+     * @param orderTime  下单时间
+     * @param fromStatus 原状态
+     * @param toStatus   新状态
+     */
+    public void transition(LocalDateTime orderTime, Integer fromStatus, Integer toStatus) {
+        if (fromStatus == null || toStatus == null || fromStatus.equals(toStatus)) {
+            return;
+        }
+        afterCommit(() -> {
+            add(orderTime, fromStatus, -1);
+            add(orderTime, toStatus, 1);
+        });
+    }
+
+    /**
+     * 查询某状态的订单总数
+     *
+     * @param status
+     * @return
+     */
+    public Integer count(Integer status) {
+        ensureInitialized();
+        return (int) totalCounts.get(status);
+    }
+
+    /**
+     * 查询指定日期下单的某状态订单数
+     *
+     * @param date
+     * @param status
+     * @return
+     */
+    public Integer countOfDay(LocalDate date, Integer status) {
+        ensureInitialized();
+        AtomicLongArray counts = dailyCounts.get(date);
+        return counts == null ? 0 : (int) counts.get(status);
+    }
+
+    /**
+     * 查询指定日期下单的全部订单数
+     *
+     * @param date
+     * @return
+     */
+    public Integer countOfDay(LocalDate date) {
+        ensureInitialized();
+        AtomicLongArray counts = dailyCounts.get(date);
+        if (counts == null) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 1; i < STATUS_SIZE; i++) {
+            sum += counts.get(i);
+        }
+        return (int) sum;
+    }
+
+    /**
+     * 定时与数据库对账
+     * 不直接替换计数数组，而是在查询前记录内存计数，按 数据库数量-查询前的内存计数 修正，
+     * 查询期间提交的订单变化仍保留在计数中；查询前刚提交、回调尚未执行的修改可能被计两次，由下次对账修正
+     */
+    @Scheduled(fixedDelayString = "${sky.order-counter.reconcile-interval:60000}")
+    public synchronized void reconcile() {
+        LocalDate today = LocalDate.now();
+        AtomicLongArray todayCounts = dailyCounts.computeIfAbsent(today, key -> new AtomicLongArray(STATUS_SIZE));
+
+        long[] totalBefore = snapshot(totalCounts);
+        long[] todayBefore = snapshot(todayCounts);
+        long[] total = toCounts(orderMapper.countGroupByStatus(null));
+        long[] todayTotal = toCounts(orderMapper.countGroupByStatus(LocalDateTime.of(today, LocalTime.MIN)));
+
+        correct(totalCounts, totalBefore, total);
+        correct(todayCounts, todayBefore, todayTotal);
+        //清理昨天之前的计数
+        dailyCounts.keySet().removeIf(date -> date.isBefore(today.minusDays(1)));
+
+        initialized = true;
+        log.debug("订单状态计数对账完成：{}", totalCounts);
+    }
+
+    /**
+     * 首次读取前与数据库对账一次
+     */
+    private void ensureInitialized() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    reconcile();
+                }
+            }
+        }
+    }
+
+    private void add(LocalDateTime orderTime, Integer status, int delta) {
+        if (status == null || status <= 0 || status >= STATUS_SIZE) {
+            return;
+        }
+        totalCounts.addAndGet(status, delta);
+
+        if (orderTime == null) {
+            return;
+        }
+        LocalDate date = orderTime.toLocalDate();
+        if (date.isBefore(LocalDate.now().minusDays(1))) {
+            //更早的订单只影响总数
+            return;
+        }
+        dailyCounts.computeIfAbsent(date, key -> new AtomicLongArray(STATUS_SIZE)).addAndGet(status, delta);
+    }
+
+    private long[] toCounts(List<OrderStatusCountDTO> statusCountList) {
+        long[] counts = new long[STATUS_SIZE];
+        for (OrderStatusCountDTO statusCount : statusCountList) {
+            Integer status = statusCount.getStatus();
+            if (status != null && status > 0 && status < STATUS_SIZE) {
+                counts[status] = statusCount.getOrderCount();
+            }
+        }
+        return counts;
+    }
+
+    private long[] snapshot(AtomicLongArray counts) {
+        long[] values = new long[STATUS_SIZE];
+        for (int i = 1; i < STATUS_SIZE; i++) {
+            values[i] = counts.get(i);
+        }
+        return values;
+    }
+
+    /**
+     * 按查询前后的差值修正计数，不覆盖查询期间累加的变化
+     *
+     * @param counts 内存计数
+     * @param before 查询前的内存计数
+     * @param actual 数据库中的数量
+     */
+    private void correct(AtomicLongArray counts, long[] before, long[] actual) {
+        for (int i = 1; i < STATUS_SIZE; i++) {
+            long delta = actual[i] - before[i];
+            if (delta != 0) {
+                counts.addAndGet(i, delta);
+            }
+        }
+    }
+
+    /**
+     * 存在事务时在事务提交后再更新计数，避免回滚的修改被计入
+     *
+     * @param action
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.sky.statistics;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.sky.constant.SalesConstant;
+import com.sky.dto.GoodsSalesDTO;
+import com.sky.entity.OrderDetail;
+import com.sky.properties.RealtimeSalesProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 实时商品销量排名
+ * 最近24小时按5分钟分桶，每个桶使用Space-Saving算法记录固定数量的商品销量，内存占用与下单量无关；
+ * 订单支付成功后通过redis频道通知所有节点，查询时合并窗口内的桶并选出前n名，不访问数据库
+ */
+@Component
+@Slf4j
+public class RealtimeSalesTracker implements MessageListener {
+
+    //每个桶的时长(毫秒)
+    private static final long BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    //保留24小时的桶
+    private static final int BUCKET_COUNT = (int) (TimeUnit.HOURS.toMillis(24) / BUCKET_MILLIS);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RealtimeSalesProperties realtimeSalesProperties;
+
+    //环形数组，按桶序号取模存放
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(BUCKET_COUNT);
+
+    /**
+     * 记录已支付订单的商品销量，通知所有节点
+     *
+     * @param orderDetailList
+     */
+    public void record(List<OrderDetail> orderDetailList) {
+        if (orderDetailList == null || orderDetailList.isEmpty()) {
+            return;
+        }
+
+        JSONArray items = new JSONArray();
+        for (OrderDetail orderDetail : orderDetailList) {
+            JSONObject item = new JSONObject();
+            item.put("key", orderDetail.getDishId() != null
+                    ? "dish:" + orderDetail.getDishId()
+                    : "setmeal:" + orderDetail.getSetmealId());
+            item.put("name", orderDetail.getName());
+            item.put("number", orderDetail.getNumber());
+            items.add(item);
+        }
+        JSONObject event = new JSONObject();
+        //以发布时间分桶，各节点统计结果一致
+        event.put("time", System.currentTimeMillis());
+        event.put("items", items);
+
+        String body = event.toJSONString();
+        try {
+            stringRedisTemplate.convertAndSend(SalesConstant.SALES_EVENT_CHANNEL, body);
+        } catch (Exception e) {
+            //redis不可用时只记录到本节点
+            log.warn("发布销量事件失败，只记录到本节点：{}", e.getMessage());
+            apply(body);
+        }
+    }
+
+    /**
+     * 收到销量事件，记录到本节点
+     *
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        apply(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 查询最近几小时销量最高的商品
+     *
+     * @param hours 1~24
+     * @param n
+     * @return 按销量从高到低排序
+     */
+    public List<GoodsSalesDTO> getTopN(int hours, int n) {
+        int bucketNumber = (int) Math.min(TimeUnit.HOURS.toMillis(Math.max(hours, 1)) / BUCKET_MILLIS, BUCKET_COUNT);
+        long current = System.currentTimeMillis() / BUCKET_MILLIS;
+
+        Map<String, Counter> totalMap = new HashMap<>();
+        for (int i = 0; i < bucketNumber; i++) {
+            long index = current - i;
+            Bucket bucket = buckets.get((int) (index % BUCKET_COUNT));
+            if (bucket != null && bucket.index == index) {
+                bucket.mergeInto(totalMap);
+            }
+        }
+
+        PriorityQueue<Counter> heap = new PriorityQueue<>(n + 1, Comparator.comparingLong((Counter c) -> c.count));
+        for (Counter counter : totalMap.values()) {
+            if (heap.size() < n) {
+                heap.offer(counter);
+            } else if (counter.count > heap.peek().count) {
+                heap.poll();
+                heap.offer(counter);
+            }
+        }
+
+        List<GoodsSalesDTO> top = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Counter counter = heap.poll();
+            top.add(new GoodsSalesDTO(counter.name, (int) counter.count));
+        }
+        Collections.reverse(top);
+        return top;
+    }
+
+    private void apply(String body) {
+        try {
+            JSONObject event = JSON.parseObject(body);
+            Bucket bucket = getBucket(event.getLongValue("time") / BUCKET_MILLIS);
+            if (bucket == null) {
+                return;
+            }
+            JSONArray items = event.getJSONArray("items");
+            for (int i = 0; i < items.size(); i++) {
+                JSONObject item = items.getJSONObject(i);
+                bucket.add(item.getString("key"), item.getString("name"), item.getIntValue("number"));
+            }
+        } catch (Exception e) {
+            log.warn("处理销量事件失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取指定序号的桶，环形数组中的旧桶直接替换
+     *
+     * @param index
+     * @return 已超出统计范围时返回null
+     */
+    private Bucket getBucket(long index) {
+        long current = System.currentTimeMillis() / BUCKET_MILLIS;
+        if (index <= current - BUCKET_COUNT || index > current + 1) {
+            return null;
+        }
+
+        int slot = (int) (index % BUCKET_COUNT);
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.index == index) {
+                return bucket;
+            }
+            if (bucket != null && bucket.index > index) {
+                //该位置已被更新的桶占用
+                return null;
+            }
+            Bucket newBucket = new Bucket(index, realtimeSalesProperties.getBucketCapacity());
+            if (buckets.compareAndSet(slot, bucket, newBucket)) {
+                return newBucket;
+            }
+        }
+    }
+
+    /**
+     * 一个时间段内的商品销量，最多记录capacity个商品
+     */
+    private static class Bucket {
+
+        private final long index;
+
+        private final int capacity;
+
+        private final Map<String, Counter> counterMap = new HashMap<>();
+
+        private Bucket(long index, int capacity) {
+            this.index = index;
+            this.capacity = capacity;
+        }
+
+        /**
+         * 累加销量，商品数已满时替换销量最低的商品，新商品在其销量的基础上累加
+         */
+        private synchronized void add(String key, String name, int number) {
+            Counter counter = counterMap.get(key);
+            if (counter != null) {
+                counter.count += number;
+                return;
+            }
+
+            long base = 0;
+            if (counterMap.size() >= capacity) {
+                Map.Entry<String, Counter> min = null;
+                for (Map.Entry<String, Counter> entry : counterMap.entrySet()) {
+                    if (min == null || entry.getValue().count < min.getValue().count) {
+                        min = entry;
+                    }
+                }
+                counterMap.remove(min.getKey());
+                base = min.getValue().count;
+            }
+            counterMap.put(key, new Counter(name, base + number));
+        }
+
+        private synchronized void mergeInto(Map<String, Counter> totalMap) {
+            counterMap.forEach((key, counter) -> {
+                Counter total = totalMap.get(key);
+                if (total == null) {
+                    totalMap.put(key, new Counter(counter.name, counter.count));
+                } else {
+                    total.count += counter.count;
+                }
+            });
+        }
+    }
+
+    private static class Counter {
+
+        private final String name;
+
+        private long count;
+
+        private Counter(String name, long count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+}
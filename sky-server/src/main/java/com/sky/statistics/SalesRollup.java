@@ -0,0 +1,109 @@
+package com.sky.statistics;
+
+import com.sky.dto.GoodsSalesDTO;
+import com.sky.entity.Orders;
+import com.sky.entity.SalesDailyRollup;
+import com.sky.mapper.SalesDailyRollupMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 每日商品销量汇总
+ * 订单完成时将订单明细的销量累加到 sales_daily_rollup 表，销量排名直接读取汇总数据，不再关联订单表和订单明细表；
+ * 定时任务每天重新汇总最近几天的数据，修正多次累加或漏加带来的偏差
+ */
+@Component
+@Slf4j
+public class SalesRollup {
+
+    @Autowired
+    private SalesDailyRollupMapper salesDailyRollupMapper;
+
+    /**
+     * 累加已完成订单的销量，需要与修改订单状态在同一事务中调用
+     *
+     * @param orderIds
+     */
+    public void addCompletedOrders(List<Long> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return;
+        }
+        salesDailyRollupMapper.upsertByOrderIds(orderIds);
+    }
+
+    /**
+     * 根据订单表重新汇总指定日期的销量
+     *
+     * @param saleDate
+     */
+    @Transactional
+    public void rebuild(LocalDate saleDate) {
+        salesDailyRollupMapper.deleteBySaleDate(saleDate);
+        salesDailyRollupMapper.insertBySaleDate(saleDate, Orders.COMPLETED);
+    }
+
+    /**
+     * 查询日期区间内销量最高的商品
+     * 同一商品每天一条汇总数据，先按商品合并各天的销量，再用大小为n的小顶堆选出前n名
+     *
+     * @param begin
+     * @param end
+     * @param n
+     * @return 按销量从高到低排序
+     */
+    public List<GoodsSalesDTO> getTopN(LocalDate begin, LocalDate end, int n) {
+        List<SalesDailyRollup> rollupList = salesDailyRollupMapper.listBySaleDate(begin, end);
+
+        //按商品合并销量，商品名称以最近一天的为准
+        Map<String, SalesDailyRollup> totalMap = new HashMap<>();
+        for (SalesDailyRollup rollup : rollupList) {
+            String key = rollup.getDishId() + ":" + rollup.getSetmealId();
+            SalesDailyRollup total = totalMap.get(key);
+            if (total == null) {
+                totalMap.put(key, SalesDailyRollup.builder()
+                        .saleDate(rollup.getSaleDate())
+                        .name(rollup.getName())
+                        .number(rollup.getNumber())
+                        .build());
+                continue;
+            }
+            total.setNumber(total.getNumber() + rollup.getNumber());
+            if (rollup.getSaleDate().isAfter(total.getSaleDate())) {
+                total.setSaleDate(rollup.getSaleDate());
+                total.setName(rollup.getName());
+            }
+        }
+
+        PriorityQueue<SalesDailyRollup> heap = new PriorityQueue<>(n + 1, Comparator.comparing(SalesDailyRollup::getNumber));
+        for (SalesDailyRollup total : totalMap.values()) {
+            if (total.getNumber() <= 0) {
+                continue;
+            }
+            if (heap.size() < n) {
+                heap.offer(total);
+            } else if (total.getNumber() > heap.peek().getNumber()) {
+                heap.poll();
+                heap.offer(total);
+            }
+        }
+
+        List<GoodsSalesDTO> top = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            SalesDailyRollup total = heap.poll();
+            top.add(new GoodsSalesDTO(total.getName(), total.getNumber()));
+        }
+        Collections.reverse(top);
+        return top;
+    }
+}
@@ -1,62 +1,130 @@
 package com.sky.task;
 
+import com.sky.annotation.LeaderOnly;
+import com.sky.constant.OrderConstant;
 import com.sky.entity.Orders;
 import com.sky.mapper.OrderMapper;
+import com.sky.properties.OrderTimeoutProperties;
+import com.sky.statistics.OrderStatusCounter;
+import com.sky.statistics.SalesRollup;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 /**
- * 定时任务类
+ * 定时任务类，部署多个节点时只在主节点上执行
  */
 @Component
 @Slf4j
 public class OrderTask {
+
+    //每批处理的订单数
+    private static final int BATCH_SIZE = 500;
+
     @Autowired
     private OrderMapper orderMapper;
+    @Autowired
+    private OrderStatusCounter orderStatusCounter;
+    @Autowired
+    private OrderTimeoutProperties orderTimeoutProperties;
+    @Autowired
+    private SalesRollup salesRollup;
 
     /**
      * 处理超时订单方法
+     * 超时订单由OrderTimeoutScheduler按时取消，这里只兜底处理redis不可用等情况下遗漏的订单
      */
-    @Scheduled(cron = "0 * * * * ? ")//每分钟触发一次
+    @Scheduled(cron = "0 0 * * * ? ")//每小时触发一次
+    @LeaderOnly
     public void processTimeoutOrder() {
         log.info("定时处理超时订单----");
-        List<Orders> ordersList = orderMapper.getByStatusAndOrderTimeLT(Orders.PENDING_PAYMENT, LocalDateTime.now().minusMinutes(15));
+        Orders orders = Orders.builder()
+                .status(Orders.CANCELLED)
+                .cancelReason(OrderConstant.TIMEOUT_CANCEL_REASON)
+                .cancelTime(LocalDateTime.now())
+                .build();
 
-        if (ordersList != null && ordersList.size() > 0) {
-            for (Orders orders : ordersList) {
-                orders.setStatus(Orders.CANCELLED);
-                orders.setCancelReason("订单超时，自动取消");
-                orders.setCancelTime(LocalDateTime.now());
-                orderMapper.update(orders);
-
-            }
+        LocalDateTime orderTime = LocalDateTime.now().minusMinutes(orderTimeoutProperties.getPaymentTimeoutMinutes());
+        List<Long> ids = batchUpdateStatus(Orders.PENDING_PAYMENT, orderTime, orders);
+        if (!ids.isEmpty()) {
+            log.info("超时取消订单{}个：{}", ids.size(), ids);
         }
-
-
     }
 
     /**
      * 处理一直处于派送中的订单
      */
     @Scheduled(cron = "0 0 1 * * ? ")//每天凌晨一点触发
+    @LeaderOnly
     public void processDeliverOrder() {
-        List<Orders> ordersList = orderMapper.getByStatusAndOrderTimeLT(Orders.DELIVERY_IN_PROGRESS, LocalDateTime.now().minusMinutes(60));
+        Orders orders = Orders.builder()
+                .status(Orders.COMPLETED)
+                .build();
+
+        List<Long> ids = batchUpdateStatus(Orders.DELIVERY_IN_PROGRESS, LocalDateTime.now().minusMinutes(60), orders);
+        if (!ids.isEmpty()) {
+            log.info("自动完成派送中订单{}个：{}", ids.size(), ids);
+        }
+    }
+
+    /**
+     * 分批修改指定状态、下单时间早于指定时间的订单，每批一条查询和一条修改语句
+     *
+     * @param fromStatus 原状态
+     * @param orderTime  下单时间上限
+     * @param orders     修改后的状态及取消原因等信息
+     * @return 实际被修改的订单id
+     */
+    private List<Long> batchUpdateStatus(Integer fromStatus, LocalDateTime orderTime, Orders orders) {
+        List<Long> updatedIds = new ArrayList<>();
+        boolean reconcile = false;
+        boolean completed = Orders.COMPLETED.equals(orders.getStatus());
+        //需要重新汇总销量的下单日期
+        Set<LocalDate> rebuildDates = new TreeSet<>();
 
-        if (ordersList != null && ordersList.size() > 0) {
-            for (Orders orders : ordersList) {
-                orders.setStatus(Orders.COMPLETED);
+        while (true) {
+            List<Orders> ordersList = orderMapper.getIdsByStatusAndOrderTimeLT(fromStatus, orderTime, BATCH_SIZE);
+            if (ordersList.isEmpty()) {
+                break;
+            }
+
+            List<Long> ids = ordersList.stream().map(Orders::getId).collect(Collectors.toList());
+            int count = orderMapper.updateStatusByIds(ids, fromStatus, orders);
 
-                orderMapper.update(orders);
+            if (count == ids.size()) {
+                updatedIds.addAll(ids);
+                ordersList.forEach(o -> orderStatusCounter.transition(o.getOrderTime(), fromStatus, orders.getStatus()));
+                if (completed) {
+                    salesRollup.addCompletedOrders(ids);
+                }
+            } else {
+                //部分订单在查询后被用户支付或取消，无法区分哪些是本次修改的，计数直接与数据库对账
+                updatedIds.addAll(orderMapper.getIdsByIdsAndStatus(ids, orders.getStatus()));
+                reconcile = true;
+                if (completed) {
+                    ordersList.forEach(o -> rebuildDates.add(o.getOrderTime().toLocalDate()));
+                }
+            }
 
+            if (ordersList.size() < BATCH_SIZE) {
+                break;
             }
         }
 
+        if (reconcile) {
+            orderStatusCounter.reconcile();
+        }
+        rebuildDates.forEach(salesRollup::rebuild);
+        return updatedIds;
     }
 
-
 }
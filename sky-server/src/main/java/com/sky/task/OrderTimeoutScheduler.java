@@ -0,0 +1,274 @@
+package com.sky.task;
+
+import com.sky.constant.OrderConstant;
+import com.sky.entity.Orders;
+import com.sky.mapper.OrderMapper;
+import com.sky.properties.OrderTimeoutProperties;
+import com.sky.statistics.OrderStatusCounter;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 待支付订单超时取消
+ * 下单时将订单的超时时间写入redis的sorted set，并在本地时间轮中按超时时间精确触发；
+ * 其他节点提交的订单、或者节点重启前未触发的订单由定时扫描sorted set中到期的订单处理，启动时从数据库重建sorted set；
+ * 触发时先从sorted set中删除订单id，删除成功的节点才执行取消，多个节点之间不会重复处理；
+ * 时间轮和定时扫描都只把取消任务交给线程池，redis和数据库操作都在线程池中执行，不占用时间轮和定时任务的线程
+ */
+@Component
+@Slf4j
+public class OrderTimeoutScheduler {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private OrderStatusCounter orderStatusCounter;
+    @Autowired
+    private OrderTimeoutProperties orderTimeoutProperties;
+
+    //时间轮，每格100毫秒
+    private final Timer timer = new HashedWheelTimer(runnable -> {
+        Thread thread = new Thread(runnable, "order-timeout-timer");
+        thread.setDaemon(true);
+        return thread;
+    }, 100, TimeUnit.MILLISECONDS, 512);
+
+    //执行超时取消的线程池，任务过多时拒绝，订单仍在sorted set中，由下次定时扫描处理
+    private final ThreadPoolExecutor timeoutExecutor = new ThreadPoolExecutor(
+            2, 2, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(1000),
+            runnable -> {
+                Thread thread = new Thread(runnable, "order-timeout-worker");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+    //定时扫描已交给线程池、尚未处理完的订单id，下次扫描时不重复提交
+    private final Set<Long> pollingIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 登记新订单的超时时间，存在事务时在事务提交后登记
+     *
+     * @param orderId
+     * @param orderTime 下单时间
+     */
+    public void schedule(Long orderId, LocalDateTime orderTime) {
+        afterCommit(() -> {
+            long deadline = getDeadline(orderTime);
+            try {
+                stringRedisTemplate.opsForZSet().add(OrderConstant.ORDER_TIMEOUT_KEY, orderId.toString(), deadline);
+            } catch (Exception e) {
+                //redis不可用时仍由本地时间轮触发，节点重启后由数据库重建
+                log.warn("登记订单超时时间失败，订单id：{}，{}", orderId, e.getMessage());
+            }
+
+            long delay = Math.max(deadline - System.currentTimeMillis(), 0);
+            timer.newTimeout(t -> submit(() -> timeout(orderId, orderTime)), delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * 订单已支付或已取消，不再需要超时处理
+     * 本地时间轮中的任务不单独取消，触发时因为sorted set中已没有该订单而直接跳过
+     *
+     * @param orderId
+     */
+    public void cancel(Long orderId) {
+        afterCommit(() -> {
+            try {
+                stringRedisTemplate.opsForZSet().remove(OrderConstant.ORDER_TIMEOUT_KEY, orderId.toString());
+            } catch (Exception e) {
+                log.warn("删除订单超时时间失败，订单id：{}，{}", orderId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 定时扫描sorted set中已到期的订单，交给线程池取消
+     * 每次最多取线程池队列剩余的容量，队列已满时等下次扫描
+     */
+    @Scheduled(fixedDelayString = "${sky.order-timeout.poll-interval:1000}")
+    public void poll() {
+        int batchSize = Math.min(orderTimeoutProperties.getPollBatchSize(), timeoutExecutor.getQueue().remainingCapacity());
+        if (batchSize <= 0) {
+            return;
+        }
+
+        Set<ZSetOperations.TypedTuple<String>> dueSet;
+        try {
+            dueSet = stringRedisTemplate.opsForZSet().rangeByScoreWithScores(OrderConstant.ORDER_TIMEOUT_KEY,
+                    0, System.currentTimeMillis(), 0, batchSize);
+        } catch (Exception e) {
+            log.debug("扫描到期订单失败：{}", e.getMessage());
+            return;
+        }
+        if (dueSet == null) {
+            return;
+        }
+
+        for (ZSetOperations.TypedTuple<String> tuple : dueSet) {
+            Long orderId = Long.valueOf(tuple.getValue());
+            long deadline = tuple.getScore().longValue();
+            long orderTime = deadline - TimeUnit.MINUTES.toMillis(orderTimeoutProperties.getPaymentTimeoutMinutes());
+            if (!pollingIds.add(orderId)) {
+                continue;
+            }
+            boolean submitted = submit(() -> {
+                try {
+                    timeout(orderId, LocalDateTime.ofInstant(Instant.ofEpochMilli(orderTime), ZoneId.systemDefault()));
+                } finally {
+                    pollingIds.remove(orderId);
+                }
+            });
+            if (!submitted) {
+                pollingIds.remove(orderId);
+                break;
+            }
+        }
+    }
+
+    /**
+     * 启动时从数据库重建所有待支付订单的超时时间
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int batchSize = orderTimeoutProperties.getPollBatchSize();
+        long lastId = 0;
+        int total = 0;
+
+        try {
+            while (true) {
+                List<Orders> ordersList = orderMapper.getIdsByStatusAndIdGT(Orders.PENDING_PAYMENT, lastId, batchSize);
+                if (ordersList.isEmpty()) {
+                    break;
+                }
+
+                Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+                for (Orders orders : ordersList) {
+                    tuples.add(new DefaultTypedTuple<>(orders.getId().toString(), (double) getDeadline(orders.getOrderTime())));
+                }
+                stringRedisTemplate.opsForZSet().add(OrderConstant.ORDER_TIMEOUT_KEY, tuples);
+
+                total += ordersList.size();
+                lastId = ordersList.get(ordersList.size() - 1).getId();
+                if (ordersList.size() < batchSize) {
+                    break;
+                }
+            }
+            log.info("重建待支付订单超时队列完成，共{}个订单", total);
+        } catch (Exception e) {
+            //重建失败时由OrderTask中的兜底任务处理超时订单
+            log.warn("重建待支付订单超时队列失败：{}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        timer.stop();
+        timeoutExecutor.shutdown();
+    }
+
+    /**
+     * 订单到期，抢到处理权后取消订单
+     *
+     * @param orderId
+     * @param orderTime
+     */
+    private void timeout(Long orderId, LocalDateTime orderTime) {
+        try {
+            Long removed = stringRedisTemplate.opsForZSet().remove(OrderConstant.ORDER_TIMEOUT_KEY, orderId.toString());
+            if (removed == null || removed == 0) {
+                //已支付、已取消或者已被其他节点处理
+                return;
+            }
+        } catch (Exception e) {
+            //redis不可用时直接处理，数据库按原状态修改，不会重复取消
+            log.warn("获取订单超时处理权失败，订单id：{}，{}", orderId, e.getMessage());
+        }
+
+        try {
+            Orders orders = Orders.builder()
+                    .status(Orders.CANCELLED)
+                    .cancelReason(OrderConstant.TIMEOUT_CANCEL_REASON)
+                    .cancelTime(LocalDateTime.now())
+                    .build();
+            int count = orderMapper.updateStatusByIds(Collections.singletonList(orderId), Orders.PENDING_PAYMENT, orders);
+            if (count > 0) {
+                orderStatusCounter.transition(orderTime, Orders.PENDING_PAYMENT, Orders.CANCELLED);
+                log.info("订单超时自动取消，订单id：{}", orderId);
+            }
+        } catch (Exception e) {
+            //取消失败时放回队列，稍后重试
+            log.error("订单超时取消失败，订单id：{}", orderId, e);
+            try {
+                stringRedisTemplate.opsForZSet().add(OrderConstant.ORDER_TIMEOUT_KEY, orderId.toString(),
+                        System.currentTimeMillis() + orderTimeoutProperties.getPollInterval());
+            } catch (Exception ignored) {
+                //由OrderTask中的兜底任务处理
+            }
+        }
+    }
+
+    /**
+     * 提交取消任务，线程池已满或已关闭时放弃，订单仍在sorted set中
+     *
+     * @param task
+     * @return 是否提交成功
+     */
+    private boolean submit(Runnable task) {
+        try {
+            timeoutExecutor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private long getDeadline(LocalDateTime orderTime) {
+        return orderTime.plusMinutes(orderTimeoutProperties.getPaymentTimeoutMinutes())
+                .atZone(ZoneId.systemDefault())
+                .toInstant()
+                .toEpochMilli();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
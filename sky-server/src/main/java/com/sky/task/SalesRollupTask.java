@@ -0,0 +1,42 @@
+package com.sky.task;
+
+import com.sky.annotation.LeaderOnly;
+import com.sky.properties.SalesRollupProperties;
+import com.sky.statistics.SalesRollup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * 每日商品销量汇总的定时任务
+ */
+@Component
+@Slf4j
+public class SalesRollupTask {
+
+    @Autowired
+    private SalesRollup salesRollup;
+    @Autowired
+    private SalesRollupProperties salesRollupProperties;
+
+    /**
+     * 重新汇总最近几天的销量，在自动完成派送中订单之后执行
+     */
+    @Scheduled(cron = "0 30 1 * * ? ")//每天凌晨一点半触发
+    @LeaderOnly
+    public void backfill() {
+        LocalDate today = LocalDate.now();
+        for (int i = salesRollupProperties.getBackfillDays(); i >= 0; i--) {
+            LocalDate saleDate = today.minusDays(i);
+            try {
+                salesRollup.rebuild(saleDate);
+            } catch (Exception e) {
+                log.error("重新汇总{}的商品销量失败", saleDate, e);
+            }
+        }
+        log.info("重新汇总最近{}天的商品销量完成", salesRollupProperties.getBackfillDays());
+    }
+}
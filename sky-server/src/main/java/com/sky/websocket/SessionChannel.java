@@ -0,0 +1,183 @@
+package com.sky.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Session;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 单个WebSocket会话的发送通道
+ * 消息先进入有界队列，由发送线程通过异步方式逐条发出，上一条发送完成后再发送下一条；
+ * 队列中已有相同内容的消息时直接合并，队列满时按策略丢弃最早的消息或关闭连接
+ */
+@Slf4j
+public class SessionChannel {
+
+    //关闭原因会发送给客户端，长度有限，只使用英文
+    private static final String SLOW_CONSUMER = "slow consumer";
+
+    private final String sid;
+
+    private final Session session;
+
+    private final int capacity;
+
+    //队列满时是否关闭连接，否则丢弃最早的消息
+    private final boolean closeOnOverflow;
+
+    private final Executor executor;
+
+    private final WebSocketDispatcher dispatcher;
+
+    //待发送的消息，以及用于合并相同消息的集合，均由当前对象加锁保护
+    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    private final Set<String> pending = new HashSet<>();
+
+    //是否有消息正在发送或已提交给发送线程，保证同一会话同时只有一条消息在发送
+    private final AtomicBoolean sending = new AtomicBoolean(false);
+
+    private volatile boolean closed = false;
+
+    public SessionChannel(String sid, Session session, int capacity, boolean closeOnOverflow,
+                          Executor executor, WebSocketDispatcher dispatcher) {
+        this.sid = sid;
+        this.session = session;
+        this.capacity = capacity;
+        this.closeOnOverflow = closeOnOverflow;
+        this.executor = executor;
+        this.dispatcher = dispatcher;
+    }
+
+    public String getSid() {
+        return sid;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * 消息入队，不会阻塞调用线程
+     *
+     * @param message
+     */
+    public void offer(String message) {
+        if (closed) {
+            return;
+        }
+
+        boolean overflow = false;
+        synchronized (this) {
+            if (pending.contains(message)) {
+                //相同的消息还未发出，合并为一条
+                return;
+            }
+            if (queue.size() >= capacity) {
+                if (closeOnOverflow) {
+                    overflow = true;
+                } else {
+                    String dropped = queue.pollFirst();
+                    pending.remove(dropped);
+                    log.warn("websocket消息积压，丢弃最早的消息，客户端：{}", sid);
+                }
+            }
+            if (!overflow) {
+                queue.offerLast(message);
+                pending.add(message);
+            }
+        }
+
+        if (overflow) {
+            log.warn("websocket消息积压，关闭慢速连接，客户端：{}", sid);
+            close();
+            return;
+        }
+        schedule();
+    }
+
+    /**
+     * 关闭通道和连接，丢弃未发送的消息
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        synchronized (this) {
+            queue.clear();
+            pending.clear();
+        }
+        dispatcher.unregister(sid, session);
+
+        try {
+            if (session.isOpen()) {
+                session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, SLOW_CONSUMER));
+            }
+        } catch (Exception e) {
+            log.debug("关闭websocket连接失败，客户端：{}，{}", sid, e.getMessage());
+        }
+    }
+
+    /**
+     * 连接已由客户端关闭，只做标记
+     */
+    public void markClosed() {
+        closed = true;
+        synchronized (this) {
+            queue.clear();
+            pending.clear();
+        }
+    }
+
+    private void schedule() {
+        if (sending.compareAndSet(false, true)) {
+            executor.execute(this::sendNext);
+        }
+    }
+
+    /**
+     * 发送队首的消息，发送完成后在回调中继续发送下一条
+     */
+    private void sendNext() {
+        String message;
+        synchronized (this) {
+            message = queue.pollFirst();
+            if (message != null) {
+                pending.remove(message);
+            }
+        }
+
+        if (message == null || closed) {
+            sending.set(false);
+            //释放发送标记的同时可能有新消息入队
+            if (!closed && hasQueued()) {
+                schedule();
+            }
+            return;
+        }
+
+        try {
+            session.getAsyncRemote().sendText(message, result -> {
+                if (!result.isOK()) {
+                    log.warn("websocket消息发送失败，客户端：{}，{}", sid,
+                            result.getException() == null ? null : result.getException().getMessage());
+                    close();
+                    return;
+                }
+                executor.execute(this::sendNext);
+            });
+        } catch (Exception e) {
+            log.warn("websocket消息发送失败，客户端：{}，{}", sid, e.getMessage());
+            close();
+        }
+    }
+
+    private synchronized boolean hasQueued() {
+        return !queue.isEmpty();
+    }
+}
@@ -0,0 +1,104 @@
+package com.sky.websocket;
+
+import com.sky.properties.WebSocketProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.websocket.Session;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket消息分发器
+ * 维护当前节点的会话，消息只放入各会话的发送队列，由发送线程异步发出，调用方不会因为慢速客户端而阻塞
+ */
+@Component
+@Slf4j
+public class WebSocketDispatcher {
+
+    private static final String OVERFLOW_POLICY_CLOSE = "close";
+
+    @Autowired
+    private WebSocketProperties webSocketProperties;
+
+    private final ConcurrentHashMap<String, SessionChannel> channelMap = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(webSocketProperties.getDispatchThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "websocket-dispatcher-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 注册会话，同一个sid重复连接时替换原来的会话
+     *
+     * @param sid
+     * @param session
+     */
+    public void register(String sid, Session session) {
+        session.getAsyncRemote().setSendTimeout(webSocketProperties.getSendTimeoutMillis());
+
+        SessionChannel channel = new SessionChannel(sid, session,
+                webSocketProperties.getQueueCapacity(),
+                OVERFLOW_POLICY_CLOSE.equalsIgnoreCase(webSocketProperties.getOverflowPolicy()),
+                executor, this);
+        SessionChannel old = channelMap.put(sid, channel);
+        if (old != null) {
+            old.markClosed();
+        }
+    }
+
+    /**
+     * 注销会话，只注销与当前会话对应的通道，避免误删同一个sid重新建立的连接
+     *
+     * @param sid
+     * @param session
+     */
+    public void unregister(String sid, Session session) {
+        SessionChannel channel = channelMap.get(sid);
+        if (channel != null && channel.getSession() == session && channelMap.remove(sid, channel)) {
+            channel.markClosed();
+        }
+    }
+
+    /**
+     * 向当前节点的所有会话发送消息
+     *
+     * @param message
+     */
+    public void broadcast(String message) {
+        channelMap.values().forEach(channel -> channel.offer(message));
+    }
+
+    /**
+     * 向当前节点的指定会话发送消息
+     *
+     * @param sid
+     * @param message
+     * @return 会话不在当前节点时返回false
+     */
+    public boolean send(String sid, String message) {
+        SessionChannel channel = channelMap.get(sid);
+        if (channel == null) {
+            return false;
+        }
+        channel.offer(message);
+        return true;
+    }
+}
@@ -0,0 +1,79 @@
+package com.sky.websocket;
+
+import com.sky.constant.WebSocketConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * WebSocket消息的集群发布
+ * 订单事件先发布到redis频道，每个节点收到后推送给连接在本节点的会话，管理端连接在任意节点都能收到来单和催单提醒
+ */
+@Component
+@Slf4j
+public class WebSocketPublisher implements MessageListener {
+
+    //消息格式为 目标sid|消息内容，sid为空表示发送给所有会话
+    private static final String SEPARATOR = "|";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private WebSocketDispatcher webSocketDispatcher;
+
+    /**
+     * 向所有节点的所有会话发送消息
+     *
+     * @param message
+     */
+    public void publish(String message) {
+        publish(null, message);
+    }
+
+    /**
+     * 向指定会话发送消息，会话可能连接在任意节点
+     *
+     * @param sid     为空时发送给所有会话
+     * @param message
+     */
+    public void publish(String sid, String message) {
+        String body = (sid == null ? "" : sid) + SEPARATOR + message;
+        try {
+            stringRedisTemplate.convertAndSend(WebSocketConstant.ORDER_EVENT_CHANNEL, body);
+        } catch (Exception e) {
+            //redis不可用时至少推送给本节点的会话
+            log.warn("发布websocket消息失败，只推送给本节点：{}", e.getMessage());
+            deliver(sid, message);
+        }
+    }
+
+    /**
+     * 收到redis频道中的消息，推送给本节点的会话
+     *
+     * @param message
+     * @param pattern
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf(SEPARATOR);
+        if (index < 0) {
+            return;
+        }
+        String sid = body.substring(0, index);
+        deliver(sid.isEmpty() ? null : sid, body.substring(index + 1));
+    }
+
+    private void deliver(String sid, String message) {
+        if (sid == null) {
+            webSocketDispatcher.broadcast(message);
+        } else {
+            webSocketDispatcher.send(sid, message);
+        }
+    }
+}
@@ -1,33 +1,40 @@
 package com.sky.websocket;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+
 import javax.websocket.OnClose;
+import javax.websocket.OnError;
 import javax.websocket.OnMessage;
 import javax.websocket.OnOpen;
 import javax.websocket.Session;
 import javax.websocket.server.PathParam;
 import javax.websocket.server.ServerEndpoint;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * WebSocket服务
  */
 @Component
 @ServerEndpoint("/ws/{sid}")
+@Slf4j
 public class WebSocketServer {
 
-    //存放会话对象
-    private static Map<String, Session> sessionMap = new HashMap();
+    //每个连接由容器单独创建端点对象，会话统一交给分发器管理
+    private static WebSocketDispatcher dispatcher;
+
+    @Autowired
+    public void setDispatcher(WebSocketDispatcher dispatcher) {
+        WebSocketServer.dispatcher = dispatcher;
+    }
 
     /**
      * 连接建立成功调用的方法
      */
     @OnOpen
     public void onOpen(Session session, @PathParam("sid") String sid) {
-        System.out.println("websocket--------客户端：" + sid + "建立连接");
-        sessionMap.put(sid, session);
+        log.info("websocket--------客户端：{}建立连接", sid);
+        dispatcher.register(sid, session);
     }
 
     /**
@@ -37,7 +44,7 @@ public class WebSocketServer {
      */
     @OnMessage
     public void onMessage(String message, @PathParam("sid") String sid) {
-        System.out.println("websocket--------收到来自客户端：" + sid + "的信息:" + message);
+        log.info("websocket--------收到来自客户端：{}的信息:{}", sid, message);
     }
 
     /**
@@ -46,26 +53,19 @@ public class WebSocketServer {
      * @param sid
      */
     @OnClose
-    public void onClose(@PathParam("sid") String sid) {
-        System.out.println("websocket--------连接断开:" + sid);
-        sessionMap.remove(sid);
+    public void onClose(Session session, @PathParam("sid") String sid) {
+        log.info("websocket--------连接断开:{}", sid);
+        dispatcher.unregister(sid, session);
     }
 
     /**
-     * 群发
+     * 连接出错调用的方法
      *
-     * @param message
+     * @param sid
      */
-    public void sendToAllClient(String message) {
-        Collection<Session> sessions = sessionMap.values();
-        for (Session session : sessions) {
-            try {
-                //服务器向客户端发送消息
-                session.getBasicRemote().sendText(message);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
+    @OnError
+    public void onError(Session session, Throwable error, @PathParam("sid") String sid) {
+        log.warn("websocket--------连接异常:{}，{}", sid, error.getMessage());
+        dispatcher.unregister(sid, session);
     }
-
 }
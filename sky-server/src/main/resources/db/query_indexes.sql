@@ -0,0 +1,31 @@
+-- 常用查询条件的索引，只需执行一次
+-- 启动时 sky.query-plan.check-on-startup 会检查各mapper语句的执行计划是否全表扫描，QueryPlanInspectorTest在导入模拟数据的H2中检查常用语句
+
+-- 订单：按状态加下单时间查询超时订单、统计报表，用户端按用户查询历史订单，管理端按订单号、手机号搜索
+create index idx_orders_status_order_time on orders (status, order_time);
+create index idx_orders_user_id_order_time on orders (user_id, order_time);
+create index idx_orders_order_time on orders (order_time);
+create index idx_orders_number on orders (number);
+create index idx_orders_phone on orders (phone);
+
+-- 订单明细：按订单查询
+create index idx_order_detail_order_id on order_detail (order_id);
+
+-- 购物车：按用户及商品查询
+create index idx_shopping_cart_user_id_dish_id_setmeal_id on shopping_cart (user_id, dish_id, setmeal_id);
+
+-- 菜品、套餐：按分类及起售状态查询
+create index idx_dish_category_id_status on dish (category_id, status);
+create index idx_setmeal_category_id_status on setmeal (category_id, status);
+
+-- 口味、套餐菜品关系：按菜品或套餐查询
+create index idx_dish_flavor_dish_id on dish_flavor (dish_id);
+create index idx_setmeal_dish_setmeal_id on setmeal_dish (setmeal_id);
+create index idx_setmeal_dish_dish_id on setmeal_dish (dish_id);
+
+-- 用户：按openid登录，按注册时间统计
+create index idx_user_openid on user (openid);
+create index idx_user_create_time on user (create_time);
+
+-- 地址簿：按用户查询
+create index idx_address_book_user_id on address_book (user_id);
@@ -0,0 +1,21 @@
+-- 按下单日期汇总的已完成订单商品销量，菜品和套餐分别以dish_id、setmeal_id区分，另一个为0
+-- 订单完成时增量累加，每天凌晨重新汇总最近几天的数据修正偏差
+create table if not exists sales_daily_rollup
+(
+    sale_date   date                               not null comment '下单日期',
+    dish_id     bigint   default 0                 not null comment '菜品id',
+    setmeal_id  bigint   default 0                 not null comment '套餐id',
+    name        varchar(32)                        null comment '商品名称',
+    number      int      default 0                 not null comment '销量',
+    update_time datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
+    primary key (sale_date, dish_id, setmeal_id)
+) comment '每日商品销量汇总';
+
+-- 汇总已有的历史订单
+insert into sales_daily_rollup (sale_date, dish_id, setmeal_id, name, number)
+select date(o.order_time), ifnull(od.dish_id, 0), ifnull(od.setmeal_id, 0), max(od.name), sum(od.number)
+from order_detail od
+         join orders o on od.order_id = o.id
+where o.status = 5
+group by date(o.order_time), ifnull(od.dish_id, 0), ifnull(od.setmeal_id, 0)
+on duplicate key update name = values(name), number = values(number);
@@ -0,0 +1,245 @@
+package com.sky.diagnostics;
+
+import org.apache.ibatis.io.ResolverUtil;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 常用mapper语句的执行计划检查
+ * 在MySQL模式的H2中建表并导入超过阈值的模拟数据，对全部语句执行EXPLAIN，常用语句不允许全表扫描，也不允许无法检查
+ * 索引使用线上执行的 db/query_indexes.sql，索引脚本的改动会直接反映在检查结果中
+ */
+public class QueryPlanInspectorTest {
+
+    //每张表导入的行数，超过全表扫描的报告阈值
+    private static final int ROWS = 5000;
+
+    private static final long FULL_SCAN_ROWS = 1000;
+
+    //用户端浏览、下单以及定时任务频繁执行的语句
+    private static final List<String> HOT_STATEMENTS = Arrays.asList(
+            "com.sky.mapper.DishMapper.list",
+            "com.sky.mapper.DishMapper.getById",
+            "com.sky.mapper.DishFlavorMapper.getByDishIds",
+            "com.sky.mapper.SetmealMapper.list",
+            "com.sky.mapper.SetmealMapper.getDishItemBySetmealId",
+            "com.sky.mapper.SetMealDishMapper.getSetMealIdsByDishIds",
+            "com.sky.mapper.ShoppingCartMapper.list",
+            "com.sky.mapper.ShoppingCartMapper.deleteByUserId",
+            "com.sky.mapper.AddressBookMapper.list",
+            "com.sky.mapper.UserMapper.getByOpenId",
+            "com.sky.mapper.OrderMapper.getByNumber",
+            "com.sky.mapper.OrderMapper.getById",
+            "com.sky.mapper.OrderMapper.getIdsByStatusAndOrderTimeLT",
+            "com.sky.mapper.OrderMapper.getIdsByStatusAndIdGT",
+            "com.sky.mapper.OrderMapper.updateStatusByIds",
+            "com.sky.mapper.OrderDetailMapper.getByOrderId",
+            "com.sky.mapper.OrderDetailMapper.getByOrderIds");
+
+    private static Connection connection;
+
+    private static Configuration configuration;
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:query_plan;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1");
+        connection = dataSource.getConnection();
+        ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/loadtest/schema.sql"));
+        ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/query_indexes.sql"));
+        seed();
+
+        Configuration mybatisConfiguration = new Configuration();
+        mybatisConfiguration.setMapUnderscoreToCamelCase(true);
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setConfiguration(mybatisConfiguration);
+        factoryBean.setTypeAliasesPackage("com.sky.entity");
+        factoryBean.setMapperLocations(new PathMatchingResourcePatternResolver().getResources("classpath:mapper/*.xml"));
+        SqlSessionFactory sqlSessionFactory = factoryBean.getObject();
+        configuration = sqlSessionFactory.getConfiguration();
+        //xml对应的mapper已随xml注册，这里只补充只有注解的mapper
+        ResolverUtil<Object> resolverUtil = new ResolverUtil<>();
+        resolverUtil.find(new ResolverUtil.IsA(Object.class), "com.sky.mapper");
+        for (Class<?> type : resolverUtil.getClasses()) {
+            if (type.isInterface() && !configuration.hasMapper(type)) {
+                configuration.addMapper(type);
+            }
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void hotStatementsUseIndexes() throws Exception {
+        QueryPlanInspector inspector = new QueryPlanInspector(FULL_SCAN_ROWS, Collections.emptyList());
+        QueryPlanInspector.Report report = inspector.inspect(configuration, connection);
+
+        List<String> unchecked = new ArrayList<>();
+        List<String> fullScans = new ArrayList<>();
+        for (String id : HOT_STATEMENTS) {
+            if (!report.getChecked().contains(id)) {
+                unchecked.add(id + "：" + report.getFailures().getOrDefault(id, "语句不存在"));
+            } else if (report.getFullScans().containsKey(id)) {
+                fullScans.add(id + "：" + report.getFullScans().get(id));
+            }
+        }
+        assertTrue(unchecked.isEmpty(), "常用语句无法检查执行计划：" + unchecked);
+        assertTrue(fullScans.isEmpty(), "常用语句存在全表扫描：" + fullScans);
+    }
+
+    /**
+     * 导入模拟数据，各表数量均为ROWS，关联字段分布与线上相近：少量分类、每个用户若干地址和订单
+     */
+    private static void seed() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into dish (name, category_id, price, status, create_time) values (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                ps.setString(1, "dish" + i);
+                ps.setLong(2, i % 50 + 1);
+                ps.setBigDecimal(3, BigDecimal.valueOf(i % 100 + 1));
+                ps.setInt(4, i % 2);
+                ps.setTimestamp(5, Timestamp.valueOf(now.minusMinutes(i)));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into dish_flavor (dish_id, name, value) values (?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                ps.setLong(1, i);
+                ps.setString(2, "辣度");
+                ps.setString(3, "[\"不辣\",\"微辣\"]");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into setmeal (category_id, name, price, status, create_time) values (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                ps.setLong(1, i % 50 + 1);
+                ps.setString(2, "setmeal" + i);
+                ps.setBigDecimal(3, BigDecimal.valueOf(i % 100 + 1));
+                ps.setInt(4, i % 2);
+                ps.setTimestamp(5, Timestamp.valueOf(now.minusMinutes(i)));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into setmeal_dish (setmeal_id, dish_id, name, price, copies) values (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                ps.setLong(1, i);
+                ps.setLong(2, i);
+                ps.setString(3, "dish" + i);
+                ps.setBigDecimal(4, BigDecimal.valueOf(i % 100 + 1));
+                ps.setInt(5, 1);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into user (openid, name, create_time) values (?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                ps.setString(1, "openid" + i);
+                ps.setString(2, "user" + i);
+                ps.setTimestamp(3, Timestamp.valueOf(now.minusMinutes(i)));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into address_book (user_id, consignee, phone, detail, is_default) values (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                ps.setLong(1, i % 1000 + 1);
+                ps.setString(2, "consignee" + i);
+                ps.setString(3, String.valueOf(13800000000L + i));
+                ps.setString(4, "detail" + i);
+                ps.setInt(5, i % 5 == 0 ? 1 : 0);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into shopping_cart (name, user_id, dish_id, dish_flavor, number, amount, create_time) values (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                ps.setString(1, "dish" + i);
+                ps.setLong(2, i % 1000 + 1);
+                ps.setLong(3, i);
+                ps.setString(4, "微辣");
+                ps.setInt(5, 1);
+                ps.setBigDecimal(6, BigDecimal.valueOf(i % 100 + 1));
+                ps.setTimestamp(7, Timestamp.valueOf(now.minusMinutes(i)));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into orders (number, status, user_id, address_book_id, order_time, pay_status, amount, phone) " +
+                        "values (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                ps.setString(1, String.valueOf(1000000000L + i));
+                ps.setInt(2, i % 6 + 1);
+                ps.setLong(3, i % 1000 + 1);
+                ps.setLong(4, i % 1000 + 1);
+                ps.setTimestamp(5, Timestamp.valueOf(now.minusMinutes(i)));
+                ps.setInt(6, i % 2);
+                ps.setBigDecimal(7, BigDecimal.valueOf(i % 100 + 1));
+                ps.setString(8, String.valueOf(13800000000L + i % 1000));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into order_detail (name, order_id, dish_id, number, amount) values (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                ps.setString(1, "dish" + i);
+                ps.setLong(2, i);
+                ps.setLong(3, i);
+                ps.setInt(4, 1);
+                ps.setBigDecimal(5, BigDecimal.valueOf(i % 100 + 1));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        //更新统计信息，使优化器按真实数据分布选择索引
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("analyze");
+        }
+    }
+}